@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Встроенная H2 со схемой приложения (те же миграции Flyway), заполненная синтетическими данными.
+ * Размеры задаются системными свойствами filmorate.bench.* (см. профиль benchmarks в pom.xml).
+ */
+public class BenchmarkDatabase implements AutoCloseable {
+    private static final int BATCH_SIZE = 1000;
+
+    public final int films = Integer.getInteger("filmorate.bench.films", 1000);
+    public final int users = Integer.getInteger("filmorate.bench.users", 1000);
+    public final int likesPerFilm = Math.min(Integer.getInteger("filmorate.bench.likesPerFilm", 20), users);
+    public final int friendsPerUser = Math.min(Integer.getInteger("filmorate.bench.friendsPerUser", 20), users - 1);
+
+    private final EmbeddedDatabase dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public BenchmarkDatabase() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .build();
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        seed();
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    @Override
+    public void close() {
+        dataSource.shutdown();
+    }
+
+    private void seed() {
+        List<Object[]> userRows = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            userRows.add(new Object[]{"user" + i + "@mail.ru", "user" + i, "User " + i,
+                    Date.valueOf(LocalDate.of(1980, 1, 1).plusDays(i % 10_000))});
+        }
+        batch("INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)", userRows);
+
+        List<Object[]> filmRows = new ArrayList<>();
+        String[] mpaCodes = {"G", "PG", "PG-13", "R", "NC-17"};
+        for (int i = 1; i <= films; i++) {
+            filmRows.add(new Object[]{"Film " + i, "Description of film " + i,
+                    Date.valueOf(LocalDate.of(1990, 1, 1).plusDays(i % 12_000)), 90 + i % 60, mpaCodes[i % 5]});
+        }
+        batch("INSERT INTO films (name, description, release_date, duration, mpa_rating) VALUES (?, ?, ?, ?, ?)",
+                filmRows);
+
+        List<Object[]> genreRows = new ArrayList<>();
+        List<Object[]> likeRows = new ArrayList<>();
+        for (int filmId = 1; filmId <= films; filmId++) {
+            genreRows.add(new Object[]{filmId, 1 + filmId % 6});
+            genreRows.add(new Object[]{filmId, 1 + (filmId + 1) % 6});
+            // У фильмов разное число лайков, чтобы рейтинг популярности был осмысленным
+            int likes = likesPerFilm == 0 ? 0 : filmId % (likesPerFilm + 1);
+            for (int k = 0; k < likes; k++) {
+                likeRows.add(new Object[]{filmId, 1 + (filmId * 7 + k) % users});
+            }
+        }
+        batch("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", genreRows);
+        batch("MERGE INTO likes (film_id, user_id) KEY (film_id, user_id) VALUES (?, ?)", likeRows);
+        jdbcTemplate.update("UPDATE films f SET like_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id)");
+
+        List<Object[]> friendRows = new ArrayList<>();
+        for (int userId = 1; userId <= users; userId++) {
+            for (int k = 1; k <= friendsPerUser; k++) {
+                friendRows.add(new Object[]{userId, 1 + (userId - 1 + k) % users});
+            }
+        }
+        batch("INSERT INTO friends (user_id, friend_id) VALUES (?, ?)", friendRows);
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
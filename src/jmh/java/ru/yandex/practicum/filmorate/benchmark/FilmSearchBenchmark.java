@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.PopularityLeaderboard;
+import ru.yandex.practicum.filmorate.index.SearchField;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск фильмов по триграммному индексу. Режим SampleTime, чтобы видеть p99 и p99.9, а не только среднее.
+ * Названия и описания собираются из словаря с неравномерными частотами слов, поэтому
+ * у частых слов списки триграмм длинные — это худший случай для поиска.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmSearchBenchmark {
+    private static final String[] WORDS = {
+            "любовь", "война", "время", "машина", "город", "ночь", "тайна", "море", "история", "судьба",
+            "комедия", "драма", "приключения", "детектив", "космос", "дорога", "семья", "друзья", "зима", "лето",
+            "love", "war", "time", "machine", "city", "night", "secret", "sea", "story", "fate"
+    };
+    private static final Set<SearchField> ALL_FIELDS = EnumSet.allOf(SearchField.class);
+
+    private final int films = Integer.getInteger("filmorate.bench.films", 100_000);
+
+    private FilmSearchIndex searchIndex;
+
+    @Setup
+    public void setUp() {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        Random random = new Random(42);
+        for (int i = 1; i <= films; i++) {
+            Film film = new Film();
+            film.setName(phrase(random, 3) + " " + i);
+            film.setDescription(phrase(random, 20));
+            film.setReleaseDate(LocalDate.of(2000, 1, 1));
+            film.setDuration(100);
+            filmStorage.create(film);
+        }
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PopularityLeaderboard leaderboard = new PopularityLeaderboard(filmStorage, true, meterRegistry);
+        leaderboard.warmUp();
+        searchIndex = new FilmSearchIndex(filmStorage, leaderboard, true, 0.6, meterRegistry);
+        searchIndex.warmUp();
+    }
+
+    @Benchmark
+    public long[] searchFrequentWord() {
+        return searchIndex.search(WORDS[ThreadLocalRandom.current().nextInt(3)], ALL_FIELDS, 20);
+    }
+
+    @Benchmark
+    public long[] searchRareWordInTitle() {
+        return searchIndex.search(WORDS[WORDS.length - 1 - ThreadLocalRandom.current().nextInt(3)],
+                EnumSet.of(SearchField.TITLE), 20);
+    }
+
+    @Benchmark
+    public long[] searchTwoWordsWithTypo() {
+        return searchIndex.search("машинна времени", ALL_FIELDS, 20);
+    }
+
+    // Частота слова убывает с его номером в словаре
+    private static String phrase(Random random, int words) {
+        StringBuilder phrase = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                phrase.append(' ');
+            }
+            phrase.append(WORDS[(int) (WORDS.length * Math.pow(random.nextDouble(), 2))]);
+        }
+        return phrase.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.index.FriendGraphIndex;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Рекомендации друзей на синтетическом графе со степенным распределением степеней
+ * (предпочтительное присоединение): у большинства пользователей несколько друзей,
+ * у «хабов» — тысячи. Интересны обе крайности: обычный пользователь и самый крупный хаб.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FriendSuggestionsBenchmark {
+    private final int users = Integer.getInteger("filmorate.bench.users", 20_000);
+    private final int friendsPerUser = Integer.getInteger("filmorate.bench.friendsPerUser", 10);
+
+    @Param({"20000", "200000"})
+    public int workBudget;
+
+    private FriendGraphIndex friendGraph;
+    private long hubId;
+
+    @Setup
+    public void setUp() {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        for (int i = 1; i <= users; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@mail.ru");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            userStorage.create(user);
+        }
+
+        // Предпочтительное присоединение: конец случайной уже существующей связи выбирается
+        // с вероятностью, пропорциональной степени вершины
+        Random random = new Random(42);
+        long[] endpoints = new long[2 * users * friendsPerUser];
+        int endpointCount = 0;
+        int[] degree = new int[users + 1];
+        for (long userId = 2; userId <= users; userId++) {
+            for (int k = 0; k < Math.min(friendsPerUser, userId - 1); k++) {
+                long friendId = endpointCount == 0 || random.nextInt(4) == 0
+                        ? 1 + random.nextInt((int) userId - 1)
+                        : endpoints[random.nextInt(endpointCount)];
+                userStorage.addFriend(userId, friendId);
+                userStorage.addFriend(friendId, userId);
+                endpoints[endpointCount++] = userId;
+                endpoints[endpointCount++] = friendId;
+                degree[(int) userId]++;
+                degree[(int) friendId]++;
+            }
+        }
+        for (int userId = 1; userId <= users; userId++) {
+            if (degree[userId] > degree[(int) hubId]) {
+                hubId = userId;
+            }
+        }
+
+        friendGraph = new FriendGraphIndex(userStorage, true, workBudget, new SimpleMeterRegistry());
+        friendGraph.warmUp();
+    }
+
+    @Benchmark
+    public long[] suggestionsForRandomUser() {
+        return friendGraph.suggestFriends(1L + ThreadLocalRandom.current().nextInt(users), 10);
+    }
+
+    @Benchmark
+    public long[] suggestionsForHub() {
+        return friendGraph.suggestFriends(hubId, 10);
+    }
+
+    @Benchmark
+    public long[] commonFriendsWithHub() {
+        return friendGraph.commonFriendIds(hubId, 1L + ThreadLocalRandom.current().nextInt(users));
+    }
+}
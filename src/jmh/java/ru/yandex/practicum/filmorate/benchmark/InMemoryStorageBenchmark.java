@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InMemoryStorageBenchmark {
+    private final int films = Integer.getInteger("filmorate.bench.films", 1000);
+    private final int users = Integer.getInteger("filmorate.bench.users", 1000);
+    private final int likesPerFilm = Math.min(Integer.getInteger("filmorate.bench.likesPerFilm", 20), users);
+
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+
+    @Setup
+    public void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        userStorage = new InMemoryUserStorage();
+        for (int i = 1; i <= users; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@mail.ru");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            userStorage.create(user);
+        }
+        for (int i = 1; i <= films; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, 1));
+            film.setDuration(100);
+            long filmId = filmStorage.create(film).getId();
+            for (int k = 0; k < i % (likesPerFilm + 1); k++) {
+                filmStorage.addLike(filmId, 1L + (filmId * 7 + k) % users);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Film> findAllFilms() {
+        return filmStorage.findAll();
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilms() {
+        return filmStorage.getPopularFilms(10);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean toggleLike() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long filmId = 1L + random.nextInt(films);
+        long userId = 1L + random.nextInt(users);
+        filmStorage.addLike(filmId, userId);
+        return filmStorage.removeLike(filmId, userId);
+    }
+
+    @Benchmark
+    public List<User> findAllUsers() {
+        return userStorage.findAll();
+    }
+}
@@ -0,0 +1,131 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.test.web.servlet.setup.StandaloneMockMvcBuilder;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpLogWriter;
+import org.zalando.logbook.Logbook;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.core.BodyFilters;
+import org.zalando.logbook.core.DefaultSink;
+import org.zalando.logbook.json.JsonHttpLogFormatter;
+import org.zalando.logbook.servlet.LogbookFilter;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.logging.AsyncHttpLogWriter;
+import ru.yandex.practicum.filmorate.logging.BodyLimitStrategy;
+import ru.yandex.practicum.filmorate.logging.SamplingRequestCondition;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.db.FilmDbStorage;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * GET /films через MockMvc с фильтром Logbook и без него:
+ * NONE — без Logbook; FULL_BODY — умолчания стартера (каждый запрос, полные тела, синхронная запись);
+ * TRUNCATED — то же с обрезкой тел до 2048 символов (тело всё равно буферизуется целиком);
+ * FILMORATE — LogbookConfig без выборки (только заголовки для списка, асинхронная запись);
+ * FILMORATE_SAMPLED — LogbookConfig с долей 0.01 для GET /films, как в application.properties.
+ * Лог пишется в пустой поток, чтобы измерять буферизацию и форматирование, а не вывод.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogbookBenchmark {
+    private static final int MAX_BODY_SIZE = 2048;
+
+    @Param({"NONE", "FULL_BODY", "TRUNCATED", "FILMORATE", "FILMORATE_SAMPLED"})
+    private String logging;
+
+    private BenchmarkDatabase database;
+    private AsyncHttpLogWriter asyncWriter;
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        database = new BenchmarkDatabase();
+        FilmService filmService = new FilmService(new FilmDbStorage(database.jdbcTemplate()), null, null, null, null);
+        StandaloneMockMvcBuilder builder = MockMvcBuilders.standaloneSetup(new FilmController(filmService, null));
+        Logbook logbook = logbook();
+        if (logbook != null) {
+            builder.addFilters(new LogbookFilter(logbook));
+        }
+        mockMvc = builder.build();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        if (asyncWriter != null) {
+            asyncWriter.close();
+        }
+        database.close();
+    }
+
+    @Benchmark
+    public byte[] findAll() throws Exception {
+        return mockMvc.perform(get("/films")).andReturn().getResponse().getContentAsByteArray();
+    }
+
+    private Logbook logbook() {
+        HttpLogWriter nullWriter = new NullHttpLogWriter();
+        return switch (logging) {
+            case "NONE" -> null;
+            case "FULL_BODY" -> Logbook.builder()
+                    .sink(new DefaultSink(new JsonHttpLogFormatter(), nullWriter))
+                    .build();
+            case "TRUNCATED" -> Logbook.builder()
+                    .bodyFilter(BodyFilters.truncate(MAX_BODY_SIZE))
+                    .sink(new DefaultSink(new JsonHttpLogFormatter(), nullWriter))
+                    .build();
+            case "FILMORATE" -> filmorateLogbook(1.0, nullWriter);
+            case "FILMORATE_SAMPLED" -> filmorateLogbook(0.01, nullWriter);
+            default -> throw new IllegalArgumentException(logging);
+        };
+    }
+
+    private Logbook filmorateLogbook(double filmsRate, HttpLogWriter delegate) {
+        asyncWriter = new AsyncHttpLogWriter(delegate, 1024, new SimpleMeterRegistry());
+        return Logbook.builder()
+                .condition(new SamplingRequestCondition(List.of("/import/**", "/export/**"),
+                        List.of("GET /films=" + filmsRate), 1.0))
+                .strategy(new BodyLimitStrategy(List.of("GET /films"), MAX_BODY_SIZE))
+                .bodyFilter(BodyFilters.truncate(MAX_BODY_SIZE))
+                .sink(new DefaultSink(new JsonHttpLogFormatter(), asyncWriter))
+                .build();
+    }
+
+    private static final class NullHttpLogWriter implements HttpLogWriter {
+        private final PrintStream out = new PrintStream(OutputStream.nullOutputStream());
+
+        @Override
+        public void write(Precorrelation precorrelation, String request) {
+            out.println(request);
+        }
+
+        @Override
+        public void write(Correlation correlation, String response) {
+            out.println(response);
+        }
+    }
+}
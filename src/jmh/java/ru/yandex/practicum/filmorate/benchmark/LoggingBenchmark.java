@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Цена одной строки лога для потока запроса при нескольких параллельных запросах:
+ * println в общий PrintStream (как было), синхронный appender logback, AsyncAppender с настройками
+ * из logback-spring.xml и DEBUG-сообщение при уровне INFO. Вывод уходит в пустой поток,
+ * поэтому измеряется только форматирование и ожидание блокировок, а не скорость терминала.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%t] %-40.40logger{39} : %m%n";
+
+    @Param({"SYSTEM_OUT", "SYNC", "ASYNC", "DISABLED"})
+    private String sink;
+
+    private final AtomicLong ids = new AtomicLong();
+    private PrintStream out;
+    private LoggerContext context;
+    private Logger log;
+
+    @Setup
+    public void setUp() {
+        out = new PrintStream(OutputStream.nullOutputStream(), true);
+        context = new LoggerContext();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setContext(context);
+        console.setEncoder(encoder);
+        console.setOutputStream(OutputStream.nullOutputStream());
+        console.start();
+
+        Appender<ILoggingEvent> appender = console;
+        if (sink.equals("ASYNC")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(console);
+            async.start();
+            appender = async;
+        }
+
+        log = context.getLogger(LoggingBenchmark.class);
+        log.setAdditive(false);
+        log.setLevel(Level.INFO);
+        log.addAppender(appender);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void friendAdded() {
+        long userId = ids.incrementAndGet();
+        long friendId = userId + 1;
+        switch (sink) {
+            case "SYSTEM_OUT" -> out.println("Друг добавлен: " + userId + " -> " + friendId);
+            case "DISABLED" -> log.debug("Друг добавлен: userId={}, friendId={}", userId, friendId);
+            default -> log.info("Друг добавлен: userId={}, friendId={}", userId, friendId);
+        }
+    }
+}
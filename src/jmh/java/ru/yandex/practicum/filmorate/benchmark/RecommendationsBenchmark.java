@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.dto.MpaDto;
+import ru.yandex.practicum.filmorate.index.LikesMatrixIndex;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Рекомендации фильмов на синтетической матрице лайков с «длинным хвостом»:
+ * популярность фильмов убывает степенным образом, поэтому у первых фильмов
+ * десятки тысяч лайков. По умолчанию 100 000 пользователей по 20 лайков — 2 млн лайков.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecommendationsBenchmark {
+    private final int films = Integer.getInteger("filmorate.bench.films", 10_000);
+    private final int users = Integer.getInteger("filmorate.bench.users", 100_000);
+    private final int likesPerUser = Integer.getInteger("filmorate.bench.likesPerUser", 20);
+
+    @Param({"50000", "500000"})
+    public int workBudget;
+
+    private LikesMatrixIndex likesMatrix;
+
+    @Setup
+    public void setUp() {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        for (int i = 1; i <= films; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, 1));
+            film.setDuration(120);
+            film.setMpa(new MpaDto(1L, null, null));
+            filmStorage.create(film);
+        }
+
+        Random random = new Random(42);
+        for (long userId = 1; userId <= users; userId++) {
+            for (int k = 0; k < likesPerUser; k++) {
+                // Куб равномерной величины смещает выбор к фильмам с маленькими id
+                long filmId = 1 + (long) (films * Math.pow(random.nextDouble(), 3));
+                filmStorage.addLike(filmId, userId);
+            }
+        }
+
+        likesMatrix = new LikesMatrixIndex(filmStorage, true, workBudget, 20, new SimpleMeterRegistry());
+        likesMatrix.warmUp();
+    }
+
+    @Benchmark
+    public long[] recommendationsForRandomUser() {
+        return likesMatrix.recommendFilms(1L + ThreadLocalRandom.current().nextInt(users), 10);
+    }
+
+    @Benchmark
+    public boolean addAndRemoveLike() {
+        // Пользователь вне сгенерированной матрицы, чтобы не стереть её лайки
+        long userId = users + 1L + ThreadLocalRandom.current().nextInt(users);
+        likesMatrix.likeAdded(1L, userId, () -> true);
+        return likesMatrix.likeRemoved(1L, userId, () -> true);
+    }
+}
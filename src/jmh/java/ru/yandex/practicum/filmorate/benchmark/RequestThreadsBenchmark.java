@@ -0,0 +1,155 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.datasource.ConnectionLimitingDataSource;
+import ru.yandex.practicum.filmorate.storage.db.UserDbStorage;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный стенд для режима виртуальных потоков: каждая операция — пачка из concurrency
+ * одновременных «запросов», каждый из которых ждёт ioMillis внешнего ввода-вывода и читает друзей
+ * случайного пользователя через пул Hikari из poolSize соединений.
+ * PLATFORM — фиксированный пул из 200 потоков, как у Tomcat по умолчанию; VIRTUAL — поток на запрос.
+ * SEMAPHORE ставит перед пулом ConnectionLimitingDataSource, NONE оставляет ожидание самому пулу.
+ * Счётчик requests даёт пропускную способность в запросах в секунду, перцентили задержки
+ * одного запроса (от постановки в очередь до ответа) печатаются в конце прогона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RequestThreadsBenchmark {
+    private static final int PLATFORM_THREADS = 200;
+    private static final long CONNECTION_TIMEOUT_MILLIS = 30_000;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private String threads;
+
+    @Param({"NONE", "SEMAPHORE"})
+    private String limiter;
+
+    @Param({"1000"})
+    private int concurrency;
+
+    @Param({"10"})
+    private int poolSize;
+
+    @Param({"0", "5"})
+    private int ioMillis;
+
+    private BenchmarkDatabase database;
+    private HikariDataSource pool;
+    private UserDbStorage userStorage;
+    private ExecutorService executor;
+    private SimpleMeterRegistry meterRegistry;
+    private Timer latency;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase();
+        HikariConfig config = new HikariConfig();
+        config.setDataSource(database.dataSource());
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(poolSize);
+        config.setConnectionTimeout(CONNECTION_TIMEOUT_MILLIS);
+        pool = new HikariDataSource(config);
+
+        DataSource dataSource = limiter.equals("SEMAPHORE")
+                ? new ConnectionLimitingDataSource(pool, poolSize, CONNECTION_TIMEOUT_MILLIS)
+                : pool;
+        userStorage = new UserDbStorage(new JdbcTemplate(dataSource));
+        executor = threads.equals("VIRTUAL")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+
+        meterRegistry = new SimpleMeterRegistry();
+        latency = Timer.builder("request")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        HistogramSnapshot snapshot = latency.takeSnapshot();
+        StringBuilder report = new StringBuilder(String.format("%n%s/%s, io %d мс: %d запросов, среднее %.2f мс",
+                threads, limiter, ioMillis, snapshot.count(), snapshot.mean(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            report.append(String.format(", p%s %.2f мс",
+                    percentile.percentile() * 100, percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        System.out.println(report);
+
+        executor.shutdownNow();
+        pool.close();
+        database.close();
+    }
+
+    @Benchmark
+    public void burst(Requests requests) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            long submitted = System.nanoTime();
+            executor.execute(() -> {
+                try {
+                    handle();
+                } finally {
+                    latency.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        requests.requests += concurrency;
+    }
+
+    private void handle() {
+        if (ioMillis > 0) {
+            try {
+                Thread.sleep(ioMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        userStorage.getFriends(ThreadLocalRandom.current().nextLong(1, database.users + 1));
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Requests {
+        public long requests;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            requests = 0;
+        }
+    }
+}
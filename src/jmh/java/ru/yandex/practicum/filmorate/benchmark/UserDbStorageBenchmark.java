@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.db.UserDbStorage;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDbStorageBenchmark {
+    private BenchmarkDatabase database;
+    private UserDbStorage userStorage;
+
+    @Setup
+    public void setUp() {
+        database = new BenchmarkDatabase();
+        userStorage = new UserDbStorage(database.jdbcTemplate());
+    }
+
+    @TearDown
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<User> getFriends() {
+        return userStorage.getFriends(randomUserId());
+    }
+
+    @Benchmark
+    public List<User> getCommonFriends() {
+        long userId = randomUserId();
+        return userStorage.getCommonFriends(userId, 1 + userId % database.users);
+    }
+
+    private long randomUserId() {
+        return 1L + ThreadLocalRandom.current().nextInt(database.users);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.service.ExportFormat;
+import ru.yandex.practicum.filmorate.service.ExportService;
+import ru.yandex.practicum.filmorate.storage.db.ExportTable;
+
+/**
+ * Потоковая выгрузка таблицы целиком: films, film_genres, likes, users или friends.
+ */
+@RestController
+@RequestMapping("/export")
+public class ExportController {
+    private static final String EXPORT_TABLE = "/{table}";
+    private static final MediaType APPLICATION_GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping(EXPORT_TABLE)
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String table,
+                                                        @RequestParam(defaultValue = "ndjson") String format) {
+        ExportTable exportTable = ExportTable.fromPath(table);
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        StreamingResponseBody body = out -> exportService.export(exportTable, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_GZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(ExportService.fileName(exportTable, exportFormat))
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
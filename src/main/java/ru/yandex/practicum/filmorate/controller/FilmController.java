@@ -1,7 +1,12 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
@@ -13,18 +18,49 @@ import java.util.List;
 
 public class FilmController {
     private final FilmService filmService;
+    private final NdjsonStreamWriter ndjsonStreamWriter;
 
     private static final String FILM_BY_ID = "/{id}";
     private static final String LIKE_PATH = "/{id}/like/{userId}";
     public static final String FILM_POPULAR = "/popular";
+    private static final String FILMS_BATCH = "/batch";
+    private static final String FILM_SEARCH = "/search";
 
-    public FilmController(FilmService filmService) {
+    public FilmController(FilmService filmService, NdjsonStreamWriter ndjsonStreamWriter) {
         this.filmService = filmService;
+        this.ndjsonStreamWriter = ndjsonStreamWriter;
     }
 
     @GetMapping
-    public Collection<Film> findAll() {
-        return filmService.findAll();
+    public Collection<Film> findAll(@RequestParam(required = false) Long after,
+                                    @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return filmService.findAll();
+        }
+        return filmService.findPage(after, limit);
+    }
+
+    @GetMapping(params = "ids")
+    public List<Film> findAllById(@RequestParam List<Long> ids) {
+        return filmService.findAllById(ids);
+    }
+
+    @PostMapping(FILMS_BATCH)
+    public List<Film> findAllByIdBatch(@RequestBody List<Long> ids) {
+        return filmService.findAllById(ids);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll(@RequestParam(required = false) Long after,
+                                                           @RequestParam(required = false) Integer limit) {
+        // Поток всегда отдаёт всю таблицу: молча проигнорированный курсор вернул бы клиенту не то, что он просил.
+        // ResponseStatusException, а не ValidationException: JSON-тело ErrorHandler не отдать клиенту, ждущему NDJSON
+        if (after != null || limit != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Параметры after и limit не поддерживаются для NDJSON, "
+                            + "для постраничного чтения запрашивайте application/json");
+        }
+        return ndjsonStreamWriter.stream(filmService::streamAll);
     }
 
     @GetMapping(FILM_BY_ID)
@@ -53,8 +89,17 @@ public class FilmController {
     }
 
     @GetMapping(FILM_POPULAR)
-    public List<Film> getPopularFilms(@RequestParam(defaultValue = "10") int count) {
-        return filmService.getPopularFilms(count);
+    public List<Film> getPopularFilms(@RequestParam(defaultValue = "10") int count,
+                                      @RequestParam(required = false) Long genreId,
+                                      @RequestParam(required = false) Integer year) {
+        return filmService.getPopularFilms(count, genreId, year);
+    }
+
+    @GetMapping(FILM_SEARCH)
+    public List<Film> searchFilms(@RequestParam String query,
+                                  @RequestParam(defaultValue = "title,description") String by,
+                                  @RequestParam(defaultValue = "20") int limit) {
+        return filmService.searchFilms(query, by, limit);
     }
 
     @DeleteMapping(FILM_BY_ID)
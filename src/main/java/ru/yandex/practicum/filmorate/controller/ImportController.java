@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.dto.ImportReport;
+import ru.yandex.practicum.filmorate.service.BulkImportService;
+import ru.yandex.practicum.filmorate.service.ImportEntity;
+import ru.yandex.practicum.filmorate.service.ImportFormat;
+
+import java.io.InputStream;
+
+/**
+ * Массовая загрузка: тело запроса (NDJSON или CSV с заголовком) читается потоком,
+ * в ответе — отчёт с числом записанных строк, ошибками по строкам и скоростью.
+ */
+@RestController
+@RequestMapping("/import")
+public class ImportController {
+    private static final String IMPORT_ENTITY = "/{entity}";
+
+    private final BulkImportService bulkImportService;
+
+    public ImportController(BulkImportService bulkImportService) {
+        this.bulkImportService = bulkImportService;
+    }
+
+    @PostMapping(value = IMPORT_ENTITY, consumes = {MediaType.APPLICATION_NDJSON_VALUE, ImportFormat.TEXT_CSV_VALUE})
+    public ImportReport importData(@PathVariable String entity,
+                                   @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                   InputStream body) {
+        return bulkImportService.importData(ImportEntity.fromPath(entity), ImportFormat.fromMediaType(contentType), body);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -9,6 +10,7 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.Statement;
 
+@Slf4j
 @RestController
 @RequestMapping("/test")
 @ConditionalOnProperty(name = "test.endpoints.enabled", havingValue = "true")
@@ -31,7 +33,7 @@ public class TestController {
                 try {
                     stmt.execute("DELETE FROM " + table);
                 } catch (Exception e) {
-                    System.err.println("Error clearing table " + table + ": " + e.getMessage());
+                    log.warn("Не удалось очистить таблицу: table={}, error={}", table, e.getMessage());
                 }
             }
 
@@ -56,7 +58,7 @@ public class TestController {
                         "(5, 'Документальный'), " +
                         "(6, 'Боевик')");
             } catch (Exception e) {
-                System.err.println("Error resetting reference tables: " + e.getMessage());
+                log.warn("Не удалось заполнить справочные таблицы: error={}", e.getMessage());
             }
 
             // Включаем проверку внешних ключей
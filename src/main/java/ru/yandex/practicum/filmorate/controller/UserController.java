@@ -1,7 +1,14 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.util.Collection;
@@ -12,6 +19,8 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final FilmService filmService;
+    private final NdjsonStreamWriter ndjsonStreamWriter;
 
     private static final String USER_BY_ID = "/{id}";
     private static final String USER_FRIENDS_LIST = "/{id}/friends";
@@ -19,14 +28,46 @@ public class UserController {
     private static final String USER_COMMON_FRIENDS = "/{id}/friends/common/{otherId}";
     private static final String CONFIRM_FRIEND = "/{id}/friends/{friendId}/confirm";
     public static final String FRIEND_REQUESTS = "/{id}/friends/requests";
+    private static final String FRIEND_SUGGESTIONS = "/{id}/friends/suggestions";
+    private static final String USER_RECOMMENDATIONS = "/{id}/recommendations";
+    private static final String USERS_BATCH = "/batch";
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, FilmService filmService, NdjsonStreamWriter ndjsonStreamWriter) {
         this.userService = userService;
+        this.filmService = filmService;
+        this.ndjsonStreamWriter = ndjsonStreamWriter;
     }
 
     @GetMapping
-    public Collection<User> findAll() {
-        return userService.findAll();
+    public Collection<User> findAll(@RequestParam(required = false) Long after,
+                                    @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return userService.findAll();
+        }
+        return userService.findPage(after, limit);
+    }
+
+    @GetMapping(params = "ids")
+    public List<User> findAllById(@RequestParam List<Long> ids) {
+        return userService.findAllById(ids);
+    }
+
+    @PostMapping(USERS_BATCH)
+    public List<User> findAllByIdBatch(@RequestBody List<Long> ids) {
+        return userService.findAllById(ids);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll(@RequestParam(required = false) Long after,
+                                                           @RequestParam(required = false) Integer limit) {
+        // Поток всегда отдаёт всю таблицу: молча проигнорированный курсор вернул бы клиенту не то, что он просил.
+        // ResponseStatusException, а не ValidationException: JSON-тело ErrorHandler не отдать клиенту, ждущему NDJSON
+        if (after != null || limit != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Параметры after и limit не поддерживаются для NDJSON, "
+                            + "для постраничного чтения запрашивайте application/json");
+        }
+        return ndjsonStreamWriter.stream(userService::streamAll);
     }
 
     @GetMapping(USER_BY_ID)
@@ -44,6 +85,16 @@ public class UserController {
         return userService.getFriendRequests(id);
     }
 
+    @GetMapping(FRIEND_SUGGESTIONS)
+    public List<User> getFriendSuggestions(@PathVariable Long id, @RequestParam(defaultValue = "10") int limit) {
+        return userService.getFriendSuggestions(id, limit);
+    }
+
+    @GetMapping(USER_RECOMMENDATIONS)
+    public List<Film> getRecommendations(@PathVariable Long id, @RequestParam(defaultValue = "10") int limit) {
+        return filmService.getRecommendations(id, limit);
+    }
+
     @GetMapping(USER_COMMON_FRIENDS)
     public List<User> getCommonFriends(@PathVariable Long id, @PathVariable Long otherId) {
         return userService.getCommonFriends(id, otherId);
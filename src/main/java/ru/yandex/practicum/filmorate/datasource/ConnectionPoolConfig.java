@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.datasource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * С filmorate.datasource.prewarm=true (профиль perf) пул заполняется соединениями до первого запроса.
+ * Заполненность пула для подбора его размера отдаёт Actuator: hikaricp.connections.active/idle/max
+ * и hikaricp.connections.pending — потоки, ждущие соединения внутри пула. Если active держится
+ * у max, а pending растёт, пул упирается в потолок.
+ */
+@Configuration
+public class ConnectionPoolConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "filmorate.datasource.prewarm", havingValue = "true")
+    public ConnectionPoolWarmer connectionPoolWarmer(DataSource dataSource) {
+        return new ConnectionPoolWarmer(dataSource);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Открывает минимальное число соединений пула (minimum-idle) сразу после старта, одновременно
+ * удерживая их, чтобы пул создал их все, а не переиспользовал одно. Иначе Hikari добирает
+ * соединения в фоне и первые запросы под нагрузкой ждут их открытия.
+ */
+@Slf4j
+public class ConnectionPoolWarmer {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final DataSource dataSource;
+
+    public ConnectionPoolWarmer(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        List<Connection> connections = new ArrayList<>();
+        try {
+            int size = dataSource.isWrapperFor(HikariDataSource.class)
+                    ? Math.max(1, dataSource.unwrap(HikariDataSource.class).getMinimumIdle())
+                    : 1;
+            for (int i = 0; i < size; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            }
+            log.info("Пул соединений прогрет: connections={}, millis={}", connections.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (SQLException e) {
+            log.warn("Пул соединений прогрет не полностью: connections={}, error={}", connections.size(),
+                    e.getMessage());
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.warn("Не удалось вернуть соединение в пул: error={}", e.getMessage());
+                }
+            }
+        }
+    }
+}
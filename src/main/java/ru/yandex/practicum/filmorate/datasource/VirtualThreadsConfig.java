@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Режим виртуальных потоков (профиль virtual-threads или spring.threads.virtual.enabled=true):
+ * Tomcat обрабатывает каждый запрос в своём виртуальном потоке, а DataSource ограничивается
+ * справедливым семафором на число соединений пула. Метрики filmorate.datasource.permits.*
+ * показывают свободные разрешения и очередь ожидающих соединения.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    // Статический метод: пост-процессор создаётся раньше остальных бинов конфигурации
+    @Bean
+    public static BeanPostProcessor connectionLimitPostProcessor(
+            @Value("${filmorate.datasource.connection-permits:${spring.datasource.hikari.maximum-pool-size:10}}")
+            int permits,
+            @Value("${spring.datasource.hikari.connection-timeout:30000}") long timeoutMillis) {
+        return new ConnectionLimitPostProcessor(permits, timeoutMillis);
+    }
+
+    @Bean
+    public MeterBinder connectionLimitMetrics(DataSource dataSource) throws SQLException {
+        ConnectionLimitingDataSource limited = dataSource.unwrap(ConnectionLimitingDataSource.class);
+        return registry -> {
+            Gauge.builder("filmorate.datasource.permits.available", limited,
+                            ConnectionLimitingDataSource::getAvailablePermits)
+                    .description("Свободные разрешения на соединение с базой")
+                    .register(registry);
+            Gauge.builder("filmorate.datasource.permits.waiting", limited,
+                            ConnectionLimitingDataSource::getWaitingThreads)
+                    .description("Потоки, ожидающие соединения с базой")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Оборачивает DataSource раньше CountingDataSourcePostProcessor, чтобы семафор стоял
+     * непосредственно перед пулом.
+     */
+    static class ConnectionLimitPostProcessor implements BeanPostProcessor, Ordered {
+        private final int permits;
+        private final long timeoutMillis;
+
+        ConnectionLimitPostProcessor(int permits, long timeoutMillis) {
+            this.permits = permits;
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                return new ConnectionLimitingDataSource(dataSource, permits, timeoutMillis);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
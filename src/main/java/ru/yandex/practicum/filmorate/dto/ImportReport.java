@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportReport {
+    private String entity;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsFailed;
+    private long durationMillis;
+    private long rowsPerSecond;
+    // Пик занятой кучи за время импорта (общий для всей JVM, параллельные запросы тоже учитываются)
+    private long peakHeapBytes;
+    // Первые ошибки по строкам; их общее число — rowsFailed
+    private List<ImportRowError> errors = new ArrayList<>();
+}
@@ -0,0 +1,277 @@
+package ru.yandex.practicum.filmorate.index;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.StorageBulkChangeEvent;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+import ru.yandex.practicum.filmorate.util.LongIntCounter;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Полнотекстовый поиск по названию и описанию фильмов на триграммах, как pg_trgm:
+ * текст приводится к нижнему регистру (ё → е), разбивается на слова из букв и цифр любого алфавита,
+ * каждое слово дополняется пробелами ("  слово ") и режется на тройки символов.
+ * Для каждого поля хранится обратный индекс «триграмма → id фильмов», поэтому поиск
+ * не просматривает все фильмы, а опечатка или часть слова всё равно находятся.
+ * Релевантность — доля триграмм запроса, найденных в поле (совпадение в названии весит вдвое больше),
+ * при равной релевантности выше более популярный фильм.
+ */
+@Slf4j
+@Component
+public class FilmSearchIndex {
+    private static final long[] NO_GRAMS = new long[0];
+    private static final int TITLE_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final FilmStorage filmStorage;
+    private final PopularityLeaderboard leaderboard;
+    private final boolean enabled;
+    private final double minSimilarity;
+
+    private final Map<SearchField, Map<Long, LongHashSet>> postings = new EnumMap<>(SearchField.class);
+    // Триграммы проиндексированных полей фильма — чтобы при изменении и удалении убрать именно их
+    private final Map<Long, Map<SearchField, long[]>> filmGrams = new ConcurrentHashMap<>();
+    // Изменения фильмов идут под read lock, прогрев — под write lock, чтобы не потерять изменение
+    private final ReadWriteLock warmUpLock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+    private volatile long warmUpMillis;
+
+    @Autowired
+    public FilmSearchIndex(@Qualifier("filmDbStorage") FilmStorage filmStorage,
+                           PopularityLeaderboard leaderboard,
+                           @Value("${filmorate.search.enabled:true}") boolean enabled,
+                           @Value("${filmorate.search.min-similarity:0.6}") double minSimilarity,
+                           MeterRegistry meterRegistry) {
+        this.filmStorage = filmStorage;
+        this.leaderboard = leaderboard;
+        this.enabled = enabled;
+        this.minSimilarity = minSimilarity;
+        for (SearchField field : SearchField.values()) {
+            postings.put(field, new ConcurrentHashMap<>());
+        }
+
+        TimeGauge.builder("filmorate.search.warmup", this, TimeUnit.MILLISECONDS, index -> index.warmUpMillis)
+                .description("Длительность построения поискового индекса")
+                .register(meterRegistry);
+        Gauge.builder("filmorate.search.films", filmGrams, Map::size)
+                .description("Число фильмов в поисковом индексе")
+                .register(meterRegistry);
+        Gauge.builder("filmorate.search.trigrams", postings, index -> index.values().stream().mapToInt(Map::size).sum())
+                .description("Число различных триграмм в поисковом индексе")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            log.info("Поисковый индекс фильмов отключён");
+            return;
+        }
+        warmUpLock.writeLock().lock();
+        try {
+            long start = System.nanoTime();
+            postings.values().forEach(Map::clear);
+            filmGrams.clear();
+            filmStorage.streamAll(this::index);
+            warmUpMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            ready = true;
+            log.info("Поисковый индекс построен: {} фильмов за {} мс", filmGrams.size(), warmUpMillis);
+        } finally {
+            warmUpLock.writeLock().unlock();
+        }
+    }
+
+    // Импорт пишет фильмы в обход сервиса — индекс проще перестроить целиком
+    @EventListener
+    public void onBulkChange(StorageBulkChangeEvent event) {
+        if (event.entity().equals("films")) {
+            warmUp();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void filmCreated(Film film) {
+        filmUpdated(film);
+    }
+
+    public void filmUpdated(Film film) {
+        warmUpLock.readLock().lock();
+        try {
+            if (ready) {
+                index(film);
+            }
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+    }
+
+    public void filmDeleted(Long filmId) {
+        warmUpLock.readLock().lock();
+        try {
+            Map<SearchField, long[]> old = filmGrams.remove(filmId);
+            if (old != null) {
+                old.forEach((field, grams) -> unlink(field, filmId, grams, NO_GRAMS));
+            }
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * До limit id фильмов, подходящих под запрос хотя бы в одном из полей fields,
+     * по убыванию релевантности, затем популярности, затем по возрастанию id.
+     */
+    public long[] search(String query, Set<SearchField> fields, int limit) {
+        long[] queryGrams = trigrams(query);
+        if (queryGrams.length == 0 || limit <= 0) {
+            return NO_GRAMS;
+        }
+        int minMatches = (int) Math.ceil(queryGrams.length * minSimilarity);
+
+        LongIntCounter relevance = new LongIntCounter();
+        LongHashSet matched = new LongHashSet();
+        for (SearchField field : fields) {
+            LongIntCounter matches = countMatches(field, queryGrams);
+            int weight = field == SearchField.TITLE ? TITLE_WEIGHT : DESCRIPTION_WEIGHT;
+            matches.forEach((filmId, count) -> {
+                relevance.add(filmId, count * weight);
+                if (count >= minMatches) {
+                    matched.add(filmId);
+                }
+            });
+        }
+
+        // В вершине кучи — худший из отобранных: {filmId, relevance, likes}
+        PriorityQueue<long[]> heap = new PriorityQueue<>(limit + 1, (a, b) -> {
+            int byRelevance = Long.compare(a[1], b[1]);
+            if (byRelevance != 0) {
+                return byRelevance;
+            }
+            int byLikes = Long.compare(a[2], b[2]);
+            return byLikes != 0 ? byLikes : Long.compare(b[0], a[0]);
+        });
+        matched.forEachLong(filmId -> {
+            heap.add(new long[]{filmId, relevance.get(filmId), leaderboard.likeCount(filmId)});
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        });
+        long[] result = new long[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = heap.poll()[0];
+        }
+        return result;
+    }
+
+    /**
+     * Отсортированные различные триграммы текста.
+     */
+    static long[] trigrams(String text) {
+        if (text == null || text.isBlank()) {
+            return NO_GRAMS;
+        }
+        LongHashSet grams = new LongHashSet();
+        StringBuilder word = new StringBuilder("  ");
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? normalize(text.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (word.length() > 2) {
+                word.append(' ');
+                for (int j = 0; j + 3 <= word.length(); j++) {
+                    grams.add(pack(word.charAt(j), word.charAt(j + 1), word.charAt(j + 2)));
+                }
+                word.setLength(2);
+            }
+        }
+        return grams.toSortedArray();
+    }
+
+    private static char normalize(char c) {
+        char lower = Character.toLowerCase(c);
+        return lower == 'ё' ? 'е' : lower;
+    }
+
+    private static long pack(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    private LongIntCounter countMatches(SearchField field, long[] queryGrams) {
+        LongIntCounter matches = new LongIntCounter();
+        Map<Long, LongHashSet> fieldPostings = postings.get(field);
+        for (long gram : queryGrams) {
+            LongHashSet filmIds = fieldPostings.get(gram);
+            if (filmIds != null) {
+                synchronized (filmIds) {
+                    filmIds.forEachLong(matches::increment);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private void index(Film film) {
+        Map<SearchField, long[]> grams = new EnumMap<>(SearchField.class);
+        grams.put(SearchField.TITLE, trigrams(film.getName()));
+        grams.put(SearchField.DESCRIPTION, trigrams(film.getDescription()));
+
+        Map<SearchField, long[]> old = filmGrams.put(film.getId(), grams);
+        for (SearchField field : SearchField.values()) {
+            long[] oldGrams = old == null ? NO_GRAMS : old.get(field);
+            long[] newGrams = grams.get(field);
+            unlink(field, film.getId(), oldGrams, newGrams);
+            link(field, film.getId(), newGrams, oldGrams);
+        }
+    }
+
+    // Добавляет фильм в списки триграмм из grams, которых нет в except
+    private void link(SearchField field, long filmId, long[] grams, long[] except) {
+        Map<Long, LongHashSet> fieldPostings = postings.get(field);
+        for (long gram : grams) {
+            if (Arrays.binarySearch(except, gram) < 0) {
+                LongHashSet filmIds = fieldPostings.computeIfAbsent(gram, key -> new LongHashSet());
+                synchronized (filmIds) {
+                    filmIds.add(filmId);
+                }
+            }
+        }
+    }
+
+    // Убирает фильм из списков триграмм из grams, которых нет в except
+    private void unlink(SearchField field, long filmId, long[] grams, long[] except) {
+        Map<Long, LongHashSet> fieldPostings = postings.get(field);
+        for (long gram : grams) {
+            if (Arrays.binarySearch(except, gram) < 0) {
+                LongHashSet filmIds = fieldPostings.get(gram);
+                if (filmIds != null) {
+                    synchronized (filmIds) {
+                        filmIds.remove(filmId);
+                    }
+                }
+            }
+        }
+    }
+}
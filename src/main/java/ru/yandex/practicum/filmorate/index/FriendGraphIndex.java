@@ -0,0 +1,258 @@
+package ru.yandex.practicum.filmorate.index;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.StorageBulkChangeEvent;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+import ru.yandex.practicum.filmorate.util.LongIntCounter;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Граф дружбы в памяти: для каждого пользователя — отсортированный массив id тех, кого он добавил в друзья.
+ * Массивы неизменяемы и заменяются целиком при изменении, поэтому чтение идёт без блокировок,
+ * а общие друзья считаются слиянием двух отсортированных массивов.
+ * Источник истины — таблица friends: индекс прогревается из неё при старте и дальше
+ * обновляется вместе с каждым изменением дружбы.
+ */
+@Slf4j
+@Component
+public class FriendGraphIndex {
+    private static final long[] NO_FRIENDS = new long[0];
+
+    private final UserStorage userStorage;
+    private final boolean enabled;
+    private final int suggestionWorkBudget;
+    private final Counter truncatedSuggestions;
+
+    private final Map<Long, long[]> adjacency = new ConcurrentHashMap<>();
+    private final AtomicLong edgeCount = new AtomicLong();
+    // Изменения дружбы идут под read lock, прогрев — под write lock, чтобы не потерять изменение
+    private final ReadWriteLock warmUpLock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+    private volatile long warmUpMillis;
+
+    @Autowired
+    public FriendGraphIndex(@Qualifier("userDbStorage") UserStorage userStorage,
+                            @Value("${filmorate.friend-graph.enabled:true}") boolean enabled,
+                            @Value("${filmorate.friend-graph.suggestion-work-budget:200000}") int suggestionWorkBudget,
+                            MeterRegistry meterRegistry) {
+        this.userStorage = userStorage;
+        this.enabled = enabled;
+        this.suggestionWorkBudget = suggestionWorkBudget;
+
+        TimeGauge.builder("filmorate.friend-graph.warmup", this, TimeUnit.MILLISECONDS, graph -> graph.warmUpMillis)
+                .description("Длительность прогрева графа дружбы")
+                .register(meterRegistry);
+        Gauge.builder("filmorate.friend-graph.edges", edgeCount, AtomicLong::get)
+                .description("Число связей в графе дружбы")
+                .register(meterRegistry);
+        truncatedSuggestions = Counter.builder("filmorate.friend-graph.suggestions.truncated")
+                .description("Подборки друзей, остановленные по бюджету работы")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            log.info("Граф дружбы в памяти отключён");
+            return;
+        }
+        warmUpLock.writeLock().lock();
+        try {
+            long start = System.nanoTime();
+            Map<Long, LongHashSet> friends = new HashMap<>();
+            userStorage.streamFriendships((userId, friendId) ->
+                    friends.computeIfAbsent(userId, id -> new LongHashSet()).add(friendId.longValue()));
+
+            adjacency.clear();
+            long edges = 0;
+            for (Map.Entry<Long, LongHashSet> entry : friends.entrySet()) {
+                long[] friendIds = entry.getValue().toSortedArray();
+                adjacency.put(entry.getKey(), friendIds);
+                edges += friendIds.length;
+            }
+            edgeCount.set(edges);
+            warmUpMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            ready = true;
+            log.info("Граф дружбы прогрет: {} пользователей, {} связей за {} мс",
+                    adjacency.size(), edges, warmUpMillis);
+        } finally {
+            warmUpLock.writeLock().unlock();
+        }
+    }
+
+    // Импорт пишет дружбы в обход сервиса — граф проще перестроить целиком
+    @EventListener
+    public void onBulkChange(StorageBulkChangeEvent event) {
+        if (event.entity().equals("friends")) {
+            warmUp();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Выполняет добавление в хранилище и, если оно прошло, добавляет связь userId -> friendId в граф.
+     */
+    public void addFriend(Long userId, Long friendId, Runnable storageChange) {
+        warmUpLock.readLock().lock();
+        try {
+            storageChange.run();
+            adjacency.compute(userId, (id, friendIds) -> {
+                long[] current = friendIds == null ? NO_FRIENDS : friendIds;
+                int position = Arrays.binarySearch(current, friendId);
+                if (position >= 0) {
+                    return current;
+                }
+                int insertAt = -position - 1;
+                long[] updated = new long[current.length + 1];
+                System.arraycopy(current, 0, updated, 0, insertAt);
+                updated[insertAt] = friendId;
+                System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+                edgeCount.incrementAndGet();
+                return updated;
+            });
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+    }
+
+    public void removeFriend(Long userId, Long friendId, Runnable storageChange) {
+        warmUpLock.readLock().lock();
+        try {
+            storageChange.run();
+            adjacency.computeIfPresent(userId, (id, friendIds) -> without(friendIds, friendId));
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет пользователя из хранилища и из графа, в том числе из списков друзей других пользователей.
+     */
+    public void userDeleted(Long userId, Runnable storageChange) {
+        warmUpLock.readLock().lock();
+        try {
+            storageChange.run();
+            long[] own = adjacency.remove(userId);
+            if (own != null) {
+                edgeCount.addAndGet(-own.length);
+            }
+            // Обратных списков нет, поэтому просматриваем всех; удаление пользователя — редкая операция
+            adjacency.replaceAll((id, friendIds) -> without(friendIds, userId));
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Отсортированные id друзей пользователя. Массив общий — изменять его нельзя.
+     */
+    public long[] friendIds(Long userId) {
+        return adjacency.getOrDefault(userId, NO_FRIENDS);
+    }
+
+    /**
+     * Общие друзья двух пользователей в порядке возрастания id: слияние отсортированных массивов
+     * за O(n + m); если один массив намного меньше, его элементы ищутся в большем бинарным поиском.
+     */
+    public long[] commonFriendIds(Long userId, Long otherId) {
+        long[] first = friendIds(userId);
+        long[] second = friendIds(otherId);
+        if (first.length > second.length) {
+            long[] swap = first;
+            first = second;
+            second = swap;
+        }
+        long[] result = new long[first.length];
+        int count = 0;
+        if ((long) first.length * 32 < second.length) {
+            for (long friendId : first) {
+                if (Arrays.binarySearch(second, friendId) >= 0) {
+                    result[count++] = friendId;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < first.length && j < second.length) {
+                if (first[i] < second[j]) {
+                    i++;
+                } else if (first[i] > second[j]) {
+                    j++;
+                } else {
+                    result[count++] = first[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Друзья друзей, ранжированные по числу общих друзей (при равенстве — по возрастанию id).
+     * Обход ограничен бюджетом: просматривается не больше suggestion-work-budget связей второго уровня,
+     * поэтому ответ для «хаба» с десятками тысяч друзей тоже укладывается в фиксированное время.
+     * Друзья с небольшим числом связей обходятся первыми — их вклад самый дешёвый,
+     * а при нехватке бюджета недосчитанными остаются связи через самые крупные хабы.
+     */
+    public long[] suggestFriends(Long userId, int limit) {
+        long[] friends = friendIds(userId);
+        long[][] secondDegree = new long[friends.length][];
+        for (int i = 0; i < friends.length; i++) {
+            secondDegree[i] = friendIds(friends[i]);
+        }
+        Arrays.sort(secondDegree, Comparator.comparingInt(friendIds -> friendIds.length));
+
+        LongIntCounter mutualFriends = new LongIntCounter();
+        int work = 0;
+        scan:
+        for (long[] friendIds : secondDegree) {
+            for (long candidate : friendIds) {
+                if (++work > suggestionWorkBudget) {
+                    truncatedSuggestions.increment();
+                    break scan;
+                }
+                if (candidate != userId && Arrays.binarySearch(friends, candidate) < 0) {
+                    mutualFriends.increment(candidate);
+                }
+            }
+        }
+        return mutualFriends.topKeys(limit);
+    }
+
+    private long[] without(long[] friendIds, long friendId) {
+        int position = Arrays.binarySearch(friendIds, friendId);
+        if (position < 0) {
+            return friendIds;
+        }
+        long[] updated = new long[friendIds.length - 1];
+        System.arraycopy(friendIds, 0, updated, 0, position);
+        System.arraycopy(friendIds, position + 1, updated, position, friendIds.length - position - 1);
+        edgeCount.decrementAndGet();
+        return updated;
+    }
+}
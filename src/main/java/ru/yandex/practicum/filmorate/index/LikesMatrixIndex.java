@@ -0,0 +1,290 @@
+package ru.yandex.practicum.filmorate.index;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.StorageBulkChangeEvent;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+import ru.yandex.practicum.filmorate.util.LongIntCounter;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Разреженная матрица «пользователь × фильм» из таблицы likes для рекомендаций:
+ * у пользователя — отсортированный массив id понравившихся фильмов (небольшой, заменяется целиком),
+ * у фильма — множество id лайкнувших пользователей (у популярных фильмов их сотни тысяч,
+ * поэтому множество меняется на месте под собственной блокировкой, как в InMemoryFilmStorage).
+ * Прогревается из базы при старте и дальше обновляется на каждом изменении лайков.
+ */
+@Slf4j
+@Component
+public class LikesMatrixIndex {
+    private static final long[] NO_FILMS = new long[0];
+
+    private final FilmStorage filmStorage;
+    private final boolean enabled;
+    private final int workBudget;
+    private final int neighbours;
+    private final Counter truncatedRecommendations;
+
+    private final Map<Long, long[]> filmsByUser = new ConcurrentHashMap<>();
+    private final Map<Long, LongHashSet> usersByFilm = new ConcurrentHashMap<>();
+    private final AtomicLong likeCount = new AtomicLong();
+    // Изменения лайков идут под read lock, прогрев — под write lock, чтобы не потерять изменение
+    private final ReadWriteLock warmUpLock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+    private volatile long warmUpMillis;
+
+    @Autowired
+    public LikesMatrixIndex(@Qualifier("filmDbStorage") FilmStorage filmStorage,
+                            @Value("${filmorate.recommendations.enabled:true}") boolean enabled,
+                            @Value("${filmorate.recommendations.work-budget:500000}") int workBudget,
+                            @Value("${filmorate.recommendations.neighbours:20}") int neighbours,
+                            MeterRegistry meterRegistry) {
+        this.filmStorage = filmStorage;
+        this.enabled = enabled;
+        this.workBudget = workBudget;
+        this.neighbours = neighbours;
+
+        TimeGauge.builder("filmorate.likes-matrix.warmup", this, TimeUnit.MILLISECONDS, index -> index.warmUpMillis)
+                .description("Длительность прогрева матрицы лайков")
+                .register(meterRegistry);
+        Gauge.builder("filmorate.likes-matrix.likes", likeCount, AtomicLong::get)
+                .description("Число лайков в матрице")
+                .register(meterRegistry);
+        truncatedRecommendations = Counter.builder("filmorate.likes-matrix.recommendations.truncated")
+                .description("Рекомендации, посчитанные не полностью из-за бюджета работы")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            log.info("Матрица лайков для рекомендаций отключена");
+            return;
+        }
+        warmUpLock.writeLock().lock();
+        try {
+            long start = System.nanoTime();
+            Map<Long, LongHashSet> films = new HashMap<>();
+            Map<Long, LongHashSet> users = new HashMap<>();
+            filmStorage.streamLikes((filmId, userId) -> {
+                films.computeIfAbsent(userId, id -> new LongHashSet()).add(filmId.longValue());
+                users.computeIfAbsent(filmId, id -> new LongHashSet()).add(userId.longValue());
+            });
+
+            filmsByUser.clear();
+            usersByFilm.clear();
+            long likes = 0;
+            for (Map.Entry<Long, LongHashSet> entry : films.entrySet()) {
+                long[] filmIds = entry.getValue().toSortedArray();
+                filmsByUser.put(entry.getKey(), filmIds);
+                likes += filmIds.length;
+            }
+            usersByFilm.putAll(users);
+            likeCount.set(likes);
+            warmUpMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            ready = true;
+            log.info("Матрица лайков прогрета: {} пользователей, {} фильмов, {} лайков за {} мс",
+                    filmsByUser.size(), usersByFilm.size(), likes, warmUpMillis);
+        } finally {
+            warmUpLock.writeLock().unlock();
+        }
+    }
+
+    // Импорт пишет в обход сервисов — матрицу проще перестроить целиком
+    @EventListener
+    public void onBulkChange(StorageBulkChangeEvent event) {
+        if (Set.of("films", "users", "likes").contains(event.entity())) {
+            warmUp();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Выполняет добавление лайка в хранилище и, если оно применилось, отражает его в матрице.
+     * Возвращает результат storageChange, чтобы вызовы можно было вкладывать друг в друга.
+     */
+    public boolean likeAdded(Long filmId, Long userId, BooleanSupplier storageChange) {
+        return changeLike(filmId, userId, true, storageChange);
+    }
+
+    public boolean likeRemoved(Long filmId, Long userId, BooleanSupplier storageChange) {
+        return changeLike(filmId, userId, false, storageChange);
+    }
+
+    public void filmDeleted(Long filmId) {
+        warmUpLock.readLock().lock();
+        try {
+            LongHashSet users = usersByFilm.remove(filmId);
+            if (users == null) {
+                return;
+            }
+            long[] userIds;
+            synchronized (users) {
+                userIds = users.toSortedArray();
+            }
+            for (long userId : userIds) {
+                filmsByUser.computeIfPresent(userId, (id, filmIds) -> without(filmIds, filmId));
+            }
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет пользователя в хранилище и, если удаление применилось, убирает его лайки из матрицы.
+     * Возвращает результат storageChange — id фильмов, с которых хранилище сняло лайки.
+     */
+    public long[] userDeleted(Long userId, Supplier<long[]> storageChange) {
+        warmUpLock.readLock().lock();
+        try {
+            long[] removedFilmIds = storageChange.get();
+            long[] filmIds = filmsByUser.remove(userId);
+            if (filmIds == null) {
+                return removedFilmIds;
+            }
+            for (long filmId : filmIds) {
+                LongHashSet users = usersByFilm.get(filmId);
+                if (users != null) {
+                    synchronized (users) {
+                        users.remove(userId.longValue());
+                    }
+                }
+            }
+            likeCount.addAndGet(-filmIds.length);
+            return removedFilmIds;
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Рекомендованные фильмы для пользователя:
+     * 1) соседи — пользователи с наибольшим числом общих лайков; фильмы пользователя обходятся
+     *    от менее популярных к более популярным, так что редкие совпадения (самые информативные)
+     *    учитываются первыми, а обход останавливается по бюджету на самых популярных фильмах;
+     * 2) фильмы соседей, которых у пользователя ещё нет, взвешиваются числом общих лайков с соседом.
+     */
+    public long[] recommendFilms(Long userId, int limit) {
+        long[] ownFilms = filmsByUser.getOrDefault(userId, NO_FILMS);
+        if (ownFilms.length == 0) {
+            return NO_FILMS;
+        }
+
+        LongHashSet[] filmUsers = new LongHashSet[ownFilms.length];
+        int filmCount = 0;
+        for (long filmId : ownFilms) {
+            LongHashSet users = usersByFilm.get(filmId);
+            if (users != null) {
+                filmUsers[filmCount++] = users;
+            }
+        }
+        LongHashSet[] byPopularity = Arrays.copyOf(filmUsers, filmCount);
+        Arrays.sort(byPopularity, Comparator.comparingInt(LongHashSet::size));
+
+        LongIntCounter overlap = new LongIntCounter();
+        long work = 0;
+        for (LongHashSet users : byPopularity) {
+            int size;
+            synchronized (users) {
+                size = users.size();
+                if (work + size > workBudget) {
+                    truncatedRecommendations.increment();
+                    break;
+                }
+                users.forEachLong(otherId -> {
+                    if (otherId != userId) {
+                        overlap.increment(otherId);
+                    }
+                });
+            }
+            work += size;
+        }
+
+        LongIntCounter scores = new LongIntCounter();
+        for (long neighbourId : overlap.topKeys(neighbours)) {
+            int weight = overlap.get(neighbourId);
+            for (long filmId : filmsByUser.getOrDefault(neighbourId, NO_FILMS)) {
+                if (Arrays.binarySearch(ownFilms, filmId) < 0) {
+                    scores.add(filmId, weight);
+                }
+            }
+        }
+        return scores.topKeys(limit);
+    }
+
+    private boolean changeLike(Long filmId, Long userId, boolean added, BooleanSupplier storageChange) {
+        warmUpLock.readLock().lock();
+        try {
+            if (!storageChange.getAsBoolean()) {
+                return false;
+            }
+            filmsByUser.compute(userId, (id, filmIds) -> {
+                long[] current = filmIds == null ? NO_FILMS : filmIds;
+                return added ? with(current, filmId) : without(current, filmId);
+            });
+            LongHashSet users = usersByFilm.computeIfAbsent(filmId, id -> new LongHashSet());
+            synchronized (users) {
+                if (added) {
+                    users.add(userId.longValue());
+                } else {
+                    users.remove(userId.longValue());
+                }
+            }
+            return true;
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+    }
+
+    private long[] with(long[] filmIds, long filmId) {
+        int position = Arrays.binarySearch(filmIds, filmId);
+        if (position >= 0) {
+            return filmIds;
+        }
+        int insertAt = -position - 1;
+        long[] updated = new long[filmIds.length + 1];
+        System.arraycopy(filmIds, 0, updated, 0, insertAt);
+        updated[insertAt] = filmId;
+        System.arraycopy(filmIds, insertAt, updated, insertAt + 1, filmIds.length - insertAt);
+        likeCount.incrementAndGet();
+        return updated;
+    }
+
+    private long[] without(long[] filmIds, long filmId) {
+        int position = Arrays.binarySearch(filmIds, filmId);
+        if (position < 0) {
+            return filmIds;
+        }
+        long[] updated = new long[filmIds.length - 1];
+        System.arraycopy(filmIds, 0, updated, 0, position);
+        System.arraycopy(filmIds, position + 1, updated, position, filmIds.length - position - 1);
+        likeCount.decrementAndGet();
+        return updated;
+    }
+}
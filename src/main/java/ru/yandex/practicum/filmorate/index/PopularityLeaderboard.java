@@ -0,0 +1,200 @@
+package ru.yandex.practicum.filmorate.index;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.StorageBulkChangeEvent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Рейтинг фильмов по числу лайков в памяти: skip-list, упорядоченный по (likeCount DESC, filmId ASC).
+ * Прогревается из базы при старте и дальше обновляется на каждом изменении лайков,
+ * поэтому топ-N отдаётся за O(N) без обращения к базе.
+ */
+@Slf4j
+@Component
+public class PopularityLeaderboard {
+    // Оценка на один фильм: узел и индексы skip-list, Entry, узел ConcurrentHashMap и ключ Long
+    static final long ESTIMATED_BYTES_PER_FILM = 160;
+
+    private final FilmStorage filmStorage;
+    private final boolean enabled;
+
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    // Изменения лайков идут под read lock, прогрев — под write lock, чтобы не потерять и не задвоить изменение
+    private final ReadWriteLock warmUpLock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+    private volatile long warmUpMillis;
+
+    @Autowired
+    public PopularityLeaderboard(@Qualifier("filmDbStorage") FilmStorage filmStorage,
+                                 @Value("${filmorate.leaderboard.enabled:true}") boolean enabled,
+                                 MeterRegistry meterRegistry) {
+        this.filmStorage = filmStorage;
+        this.enabled = enabled;
+
+        TimeGauge.builder("filmorate.leaderboard.warmup", this, TimeUnit.MILLISECONDS, board -> board.warmUpMillis)
+                .description("Длительность прогрева рейтинга популярных фильмов")
+                .register(meterRegistry);
+        Gauge.builder("filmorate.leaderboard.size", entries, Map::size)
+                .description("Число фильмов в рейтинге")
+                .register(meterRegistry);
+        Gauge.builder("filmorate.leaderboard.memory", this, PopularityLeaderboard::estimatedMemoryBytes)
+                .description("Оценка памяти, занятой рейтингом")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            log.info("Рейтинг популярных фильмов в памяти отключён");
+            return;
+        }
+        warmUpLock.writeLock().lock();
+        try {
+            long start = System.nanoTime();
+            ranking.clear();
+            entries.clear();
+            filmStorage.getLikeCounts().forEach((filmId, likeCount) -> {
+                Entry entry = new Entry(filmId, likeCount);
+                entries.put(filmId, entry);
+                ranking.add(entry);
+            });
+            warmUpMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            ready = true;
+            log.info("Рейтинг популярных фильмов прогрет: {} фильмов за {} мс", entries.size(), warmUpMillis);
+        } finally {
+            warmUpLock.writeLock().unlock();
+        }
+    }
+
+    // Массовый импорт пишет лайки и фильмы в обход сервиса — рейтинг проще перестроить целиком
+    @EventListener
+    public void onBulkChange(StorageBulkChangeEvent event) {
+        if (event.entity().equals("films") || event.entity().equals("likes")) {
+            warmUp();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Выполняет изменение лайков в хранилище и, если оно применилось, сдвигает счётчик фильма на delta.
+     * Фильмы, которых нет в рейтинге (например, уже удалённые), не добавляются.
+     */
+    public void changeLikes(Long filmId, int delta, BooleanSupplier storageChange) {
+        warmUpLock.readLock().lock();
+        try {
+            if (storageChange.getAsBoolean() && ready) {
+                shift(filmId, delta);
+            }
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Выполняет изменение в хранилище, снимающее по одному лайку с нескольких фильмов (удаление
+     * пользователя вместе с его лайками), и уменьшает счётчики фильмов, id которых оно вернуло.
+     */
+    public void likesRemoved(Supplier<long[]> storageChange) {
+        warmUpLock.readLock().lock();
+        try {
+            long[] filmIds = storageChange.get();
+            if (ready) {
+                for (long filmId : filmIds) {
+                    shift(filmId, -1);
+                }
+            }
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+    }
+
+    public void filmCreated(Long filmId) {
+        warmUpLock.readLock().lock();
+        try {
+            if (ready) {
+                entries.computeIfAbsent(filmId, id -> {
+                    Entry entry = new Entry(id, 0);
+                    ranking.add(entry);
+                    return entry;
+                });
+            }
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+    }
+
+    public void filmDeleted(Long filmId) {
+        warmUpLock.readLock().lock();
+        try {
+            entries.computeIfPresent(filmId, (id, old) -> {
+                ranking.remove(old);
+                return null;
+            });
+        } finally {
+            warmUpLock.readLock().unlock();
+        }
+    }
+
+    private void shift(Long filmId, int delta) {
+        entries.computeIfPresent(filmId, (id, old) -> {
+            ranking.remove(old);
+            Entry entry = new Entry(id, Math.max(0, old.likeCount() + delta));
+            ranking.add(entry);
+            return entry;
+        });
+    }
+
+    public List<Long> topFilmIds(int count) {
+        List<Long> filmIds = new ArrayList<>(Math.min(count, entries.size()));
+        Iterator<Entry> iterator = ranking.iterator();
+        while (filmIds.size() < count && iterator.hasNext()) {
+            filmIds.add(iterator.next().filmId());
+        }
+        return filmIds;
+    }
+
+    // Число лайков фильма по рейтингу; 0 для неизвестного фильма или пока рейтинг не прогрет
+    public int likeCount(Long filmId) {
+        Entry entry = entries.get(filmId);
+        return entry == null ? 0 : entry.likeCount();
+    }
+
+    long estimatedMemoryBytes() {
+        return entries.size() * ESTIMATED_BYTES_PER_FILM;
+    }
+
+    private record Entry(long filmId, int likeCount) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            int byLikes = Integer.compare(other.likeCount, likeCount);
+            return byLikes != 0 ? byLikes : Long.compare(filmId, other.filmId);
+        }
+    }
+}
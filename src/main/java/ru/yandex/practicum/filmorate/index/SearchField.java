@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.index;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+public enum SearchField {
+    TITLE("title"),
+    DESCRIPTION("description");
+
+    private final String param;
+
+    SearchField(String param) {
+        this.param = param;
+    }
+
+    public static SearchField fromParam(String value) {
+        for (SearchField field : values()) {
+            if (field.param.equalsIgnoreCase(value.trim())) {
+                return field;
+            }
+        }
+        throw new ValidationException("Неизвестное поле поиска: " + value);
+    }
+}
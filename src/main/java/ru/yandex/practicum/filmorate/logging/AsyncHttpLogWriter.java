@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpLogWriter;
+import org.zalando.logbook.Precorrelation;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Передаёт уже отформатированные Logbook записи в delegate из отдельного потока.
+ * Очередь ограничена: при переполнении запись отбрасывается и учитывается в счётчике
+ * filmorate.logbook.dropped, поток запроса никогда не ждёт.
+ */
+@Slf4j
+public class AsyncHttpLogWriter implements HttpLogWriter, AutoCloseable {
+    public static final String DROPPED_COUNTER = "filmorate.logbook.dropped";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final HttpLogWriter delegate;
+    private final Counter dropped;
+    private final ThreadPoolExecutor executor;
+
+    public AsyncHttpLogWriter(HttpLogWriter delegate, int queueSize, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.dropped = Counter.builder(DROPPED_COUNTER)
+                .description("HTTP-записи Logbook, отброшенные из-за переполненной очереди")
+                .register(meterRegistry);
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                task -> {
+                    Thread thread = new Thread(task, "logbook-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> dropped.increment());
+    }
+
+    @Override
+    public boolean isActive() {
+        return delegate.isActive();
+    }
+
+    @Override
+    public void write(Precorrelation precorrelation, String request) {
+        executor.execute(() -> {
+            try {
+                delegate.write(precorrelation, request);
+            } catch (Exception e) {
+                log.warn("Не удалось записать HTTP-запрос в лог: id={}", precorrelation.getId(), e);
+            }
+        });
+    }
+
+    @Override
+    public void write(Correlation correlation, String response) {
+        executor.execute(() -> {
+            try {
+                delegate.write(correlation, response);
+            } catch (Exception e) {
+                log.warn("Не удалось записать HTTP-ответ в лог: id={}", correlation.getId(), e);
+            }
+        });
+    }
+
+    // Дописывает накопленное при остановке приложения
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Очередь HTTP-лога не дописана за {} с: осталось {} записей",
+                    SHUTDOWN_TIMEOUT_SECONDS, executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Strategy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ограничивает, какие тела Logbook копирует в буфер. Обрезка тела до maxBodySize символов
+ * происходит уже при записи, поэтому без этой стратегии список всех фильмов буферизовался бы
+ * целиком. Для запросов из headersOnly (большие списки) логируются только строка запроса, заголовки
+ * и статус; тело запроса, заявившего Content-Length больше maxBodySize, тоже не копируется.
+ */
+public class BodyLimitStrategy implements Strategy {
+    private final List<RequestRule> headersOnly = new ArrayList<>();
+    private final int maxBodySize;
+
+    public BodyLimitStrategy(List<String> headersOnly, int maxBodySize) {
+        for (String rule : headersOnly) {
+            if (!rule.isBlank()) {
+                this.headersOnly.add(RequestRule.parse(rule));
+            }
+        }
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    public HttpRequest process(HttpRequest request) throws IOException {
+        if (isHeadersOnly(request) || exceedsLimit(request.getHeaders().getFirst("Content-Length"))) {
+            return request.withoutBody();
+        }
+        return request.withBody();
+    }
+
+    @Override
+    public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+        return isHeadersOnly(request) ? response.withoutBody() : response.withBody();
+    }
+
+    private boolean isHeadersOnly(HttpRequest request) {
+        for (RequestRule rule : headersOnly) {
+            if (rule.matches(request)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean exceedsLimit(String contentLength) {
+        if (maxBodySize < 0 || contentLength == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(contentLength.trim()) > maxBodySize;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zalando.logbook.BodyFilter;
+import org.zalando.logbook.HttpLogWriter;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.Strategy;
+import org.zalando.logbook.core.BodyFilters;
+import org.zalando.logbook.core.DefaultHttpLogWriter;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Настройки Logbook для Filmorate, заменяющие умолчания стартера (тот логирует каждый запрос
+ * с полными телами): отбор запросов по путям с долей выборки, без массовых эндпоинтов;
+ * копирование тел только там, где они небольшие; обрезка тел до max-body-size символов
+ * и запись в лог из отдельного потока. Логирование включается уровнем TRACE
+ * логгера org.zalando.logbook.Logbook, при другом уровне Logbook ничего не буферизует.
+ */
+@Configuration
+public class LogbookConfig {
+
+    // Имя бина совпадает с условием из автоконфигурации Logbook и заменяет его
+    @Bean
+    public Predicate<HttpRequest> requestCondition(
+            @Value("${filmorate.logbook.exclude:}") List<String> exclusions,
+            @Value("${filmorate.logbook.sampling:}") List<String> sampling,
+            @Value("${filmorate.logbook.default-sampling-rate:1.0}") double defaultRate) {
+        return new SamplingRequestCondition(exclusions, sampling, defaultRate);
+    }
+
+    @Bean
+    public Strategy strategy(@Value("${filmorate.logbook.headers-only:}") List<String> headersOnly,
+                             @Value("${filmorate.logbook.max-body-size:2048}") int maxBodySize) {
+        return new BodyLimitStrategy(headersOnly, maxBodySize);
+    }
+
+    @Bean
+    public BodyFilter bodyFilter(@Value("${filmorate.logbook.max-body-size:2048}") int maxBodySize) {
+        BodyFilter defaults = BodyFilters.defaultValue();
+        return maxBodySize < 0 ? defaults : BodyFilter.merge(defaults, BodyFilters.truncate(maxBodySize));
+    }
+
+    @Bean
+    public HttpLogWriter writer(@Value("${filmorate.logbook.async.queue-size:1024}") int queueSize,
+                                MeterRegistry meterRegistry) {
+        return new AsyncHttpLogWriter(new DefaultHttpLogWriter(), queueSize, meterRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.zalando.logbook.HttpRequest;
+
+/**
+ * Правило вида "[МЕТОД ]шаблон пути", например "GET /films" или "/import/**".
+ * Без метода правило подходит для любого метода, шаблон пути — в синтаксисе AntPathMatcher.
+ */
+record RequestRule(String method, String pattern) {
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    static RequestRule parse(String rule) {
+        String trimmed = rule.trim();
+        int space = trimmed.indexOf(' ');
+        if (space < 0) {
+            return new RequestRule(null, trimmed);
+        }
+        return new RequestRule(trimmed.substring(0, space).toUpperCase(), trimmed.substring(space + 1).trim());
+    }
+
+    boolean matches(HttpRequest request) {
+        return (method == null || method.equalsIgnoreCase(request.getMethod()))
+                && PATH_MATCHER.match(pattern, request.getPath());
+    }
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.springframework.http.MediaType;
+import org.zalando.logbook.HttpRequest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Решает, логировать ли HTTP-запрос. Массовые эндпоинты (импорт, выгрузка, батчи, NDJSON-потоки)
+ * не логируются никогда, остальные — с вероятностью из первого подходящего правила выборки
+ * или defaultRate. Запрос, не прошедший отбор, Logbook не буферизует вовсе.
+ */
+public class SamplingRequestCondition implements Predicate<HttpRequest> {
+    private final List<RequestRule> exclusions = new ArrayList<>();
+    private final Map<RequestRule, Double> rates = new LinkedHashMap<>();
+    private final double defaultRate;
+
+    /**
+     * @param exclusions правила "[МЕТОД ]шаблон" для запросов, которые не логируются
+     * @param sampling   правила "[МЕТОД ]шаблон=доля", доля от 0 до 1
+     */
+    public SamplingRequestCondition(List<String> exclusions, List<String> sampling, double defaultRate) {
+        for (String exclusion : exclusions) {
+            if (!exclusion.isBlank()) {
+                this.exclusions.add(RequestRule.parse(exclusion));
+            }
+        }
+        for (String rule : sampling) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            int separator = rule.lastIndexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Правило выборки без доли: " + rule);
+            }
+            rates.put(RequestRule.parse(rule.substring(0, separator)),
+                    checkRate(Double.parseDouble(rule.substring(separator + 1).trim())));
+        }
+        this.defaultRate = checkRate(defaultRate);
+    }
+
+    @Override
+    public boolean test(HttpRequest request) {
+        if (isNdjson(request)) {
+            return false;
+        }
+        for (RequestRule exclusion : exclusions) {
+            if (exclusion.matches(request)) {
+                return false;
+            }
+        }
+        return sample(rateFor(request));
+    }
+
+    double rateFor(HttpRequest request) {
+        for (Map.Entry<RequestRule, Double> rate : rates.entrySet()) {
+            if (rate.getKey().matches(request)) {
+                return rate.getValue();
+            }
+        }
+        return defaultRate;
+    }
+
+    // Потоковые выгрузки отдаются по тем же путям, что и списки, и отличаются только Accept
+    private static boolean isNdjson(HttpRequest request) {
+        List<String> accept = request.getHeaders().get("Accept");
+        if (accept == null) {
+            return false;
+        }
+        for (String value : accept) {
+            if (value.contains(MediaType.APPLICATION_NDJSON_VALUE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean sample(double rate) {
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private static double checkRate(double rate) {
+        if (rate < 0.0 || rate > 1.0) {
+            throw new IllegalArgumentException("Доля выборки должна быть от 0 до 1: " + rate);
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource, который внутри HTTP-запроса считает выполненные SQL-запросы и строки:
+ * прочитанные (ResultSet.next) и изменённые (executeUpdate/executeBatch).
+ * Вне запроса соединения отдаются как есть, без обёрток.
+ */
+public class CountingDataSource extends DelegatingDataSource {
+
+    public CountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        JdbcStatementStats stats = JdbcStatementStats.current();
+        if (stats == null) {
+            return connection;
+        }
+        return proxy(Connection.class, connection, (method, result) -> result instanceof Statement statement
+                ? proxy(method.getReturnType(), statement, (statementMethod, statementResult) ->
+                        countStatement(stats, statementMethod, statementResult))
+                : result);
+    }
+
+    private static Object countStatement(JdbcStatementStats stats, Method method, Object result) {
+        if (method.getName().startsWith("execute")) {
+            stats.statementExecuted();
+            if (result instanceof Integer count) {
+                stats.rowsProcessed(count);
+            } else if (result instanceof Long count) {
+                stats.rowsProcessed(count);
+            } else if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    stats.rowsProcessed(count);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    stats.rowsProcessed(count);
+                }
+            }
+        }
+        if (result instanceof ResultSet resultSet) {
+            return proxy(ResultSet.class, resultSet, (resultSetMethod, resultSetResult) -> {
+                if (resultSetMethod.getName().equals("next") && Boolean.TRUE.equals(resultSetResult)) {
+                    stats.rowsProcessed(1);
+                }
+                return resultSetResult;
+            });
+        }
+        return result;
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, ResultHandler handler) {
+        return type.cast(Proxy.newProxyInstance(CountingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                    return handler.handle(method, result);
+                }));
+    }
+
+    @FunctionalInterface
+    private interface ResultHandler {
+        Object handle(Method method, Object result);
+    }
+}
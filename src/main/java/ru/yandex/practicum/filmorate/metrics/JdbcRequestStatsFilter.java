@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Считает SQL-запросы и строки, выполненные за один HTTP-запрос, и пишет их в распределения
+ * по шаблону URI. Запрос, выполнивший больше statement-warn-threshold запросов к базе
+ * (признак N+1), попадает в лог.
+ */
+@Slf4j
+@Component
+public class JdbcRequestStatsFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_SUMMARY = "filmorate.request.jdbc.statements";
+    public static final String ROWS_SUMMARY = "filmorate.request.jdbc.rows";
+
+    private final MeterRegistry meterRegistry;
+    private final int statementWarnThreshold;
+
+    @Autowired
+    public JdbcRequestStatsFilter(MeterRegistry meterRegistry,
+                                  @Value("${filmorate.metrics.jdbc.statement-warn-threshold:50}")
+                                  int statementWarnThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.statementWarnThreshold = statementWarnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        JdbcStatementStats stats = JdbcStatementStats.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            JdbcStatementStats.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            record(STATEMENTS_SUMMARY, request.getMethod(), uri, stats.getStatements());
+            record(ROWS_SUMMARY, request.getMethod(), uri, stats.getRows());
+            if (stats.getStatements() > statementWarnThreshold) {
+                log.warn("{} {} выполнил {} SQL-запросов ({} строк)",
+                        request.getMethod(), request.getRequestURI(), stats.getStatements(), stats.getRows());
+            }
+        }
+    }
+
+    private void record(String name, String method, String uri, long value) {
+        DistributionSummary.builder(name)
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentiles(OperationTimingAspect.PERCENTILES)
+                .register(meterRegistry)
+                .record(value);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+/**
+ * Счётчики SQL-запросов и строк для текущего HTTP-запроса. Живут в ThreadLocal потока,
+ * обрабатывающего запрос: вне запроса (прогрев индексов, фоновые задачи) соединения не оборачиваются.
+ */
+public final class JdbcStatementStats {
+    private static final ThreadLocal<JdbcStatementStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long rows;
+
+    private JdbcStatementStats() {
+    }
+
+    static JdbcStatementStats start() {
+        JdbcStatementStats stats = new JdbcStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    static JdbcStatementStats current() {
+        return CURRENT.get();
+    }
+
+    void statementExecuted() {
+        statements++;
+    }
+
+    void rowsProcessed(long count) {
+        if (count > 0) {
+            rows += count;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+}
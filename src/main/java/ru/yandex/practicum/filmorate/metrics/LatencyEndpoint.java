@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/latency: p50/p99/p999 по каждой операции хранилищ, сервисов и HTTP-эндпоинтов
+ * (в миллисекундах), а также число SQL-запросов и строк на один HTTP-запрос.
+ * Перцентили — за скользящее окно Micrometer (по умолчанию 2 минуты).
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+    private static final String HTTP_TIMER = "http.server.requests";
+    private static final List<String> TIMERS = List.of(
+            HTTP_TIMER, OperationTimingAspect.SERVICE_TIMER, OperationTimingAspect.STORAGE_TIMER);
+    private static final List<String> SUMMARIES = List.of(
+            JdbcRequestStatsFilter.STATEMENTS_SUMMARY, JdbcRequestStatsFilter.ROWS_SUMMARY);
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public LatencyEndpoint(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, OperationStats>> latency() {
+        Map<String, Map<String, OperationStats>> result = new LinkedHashMap<>();
+        for (String name : TIMERS) {
+            Map<String, OperationStats> operations = new TreeMap<>();
+            for (Timer timer : meterRegistry.find(name).timers()) {
+                operations.put(operationName(timer), OperationStats.of(timer.takeSnapshot(), TimeUnit.MILLISECONDS));
+            }
+            result.put(name, operations);
+        }
+        for (String name : SUMMARIES) {
+            Map<String, OperationStats> operations = new TreeMap<>();
+            for (DistributionSummary summary : meterRegistry.find(name).summaries()) {
+                operations.put(operationName(summary), OperationStats.of(summary.takeSnapshot(), null));
+            }
+            result.put(name, operations);
+        }
+        return result;
+    }
+
+    private static String operationName(Meter meter) {
+        Meter.Id id = meter.getId();
+        if (id.getTag("class") != null) {
+            return id.getTag("class") + "." + id.getTag("method");
+        }
+        String name = id.getTag("method") + " " + id.getTag("uri");
+        // У HTTP-таймеров отдельный таймер на каждый код ответа
+        return id.getTag("status") == null ? name : name + " " + id.getTag("status");
+    }
+
+    /**
+     * Значения в миллисекундах для таймеров и в штуках для распределений.
+     */
+    public record OperationStats(long count, double mean, double p50, double p99, double p999, double max) {
+
+        static OperationStats of(HistogramSnapshot snapshot, TimeUnit unit) {
+            double p50 = 0;
+            double p99 = 0;
+            double p999 = 0;
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                double value = unit == null ? percentile.value() : percentile.value(unit);
+                if (percentile.percentile() == 0.5) {
+                    p50 = value;
+                } else if (percentile.percentile() == 0.99) {
+                    p99 = value;
+                } else if (percentile.percentile() == 0.999) {
+                    p999 = value;
+                }
+            }
+            return new OperationStats(snapshot.count(),
+                    unit == null ? snapshot.mean() : snapshot.mean(unit),
+                    p50, p99, p999,
+                    unit == null ? snapshot.max() : snapshot.max(unit));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Таймеры вокруг всех публичных методов хранилищ (FilmStorage/UserStorage, включая кэширующие обёртки)
+ * и сервисов. Перцентили считаются на клиенте по скользящему окну гистограмм HdrHistogram
+ * внутри Micrometer, запись — одно обращение к уже созданному таймеру без аллокаций.
+ */
+@Aspect
+@Component
+public class OperationTimingAspect {
+    public static final String STORAGE_TIMER = "filmorate.storage";
+    public static final String SERVICE_TIMER = "filmorate.service";
+    static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    private final MeterRegistry meterRegistry;
+    private final Map<OperationKey, Timer> timers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OperationTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * ru.yandex.practicum.filmorate.storage.FilmStorage+.*(..))"
+            + " || execution(public * ru.yandex.practicum.filmorate.storage.UserStorage+.*(..))")
+    public Object timeStorage(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(STORAGE_TIMER, joinPoint);
+    }
+
+    @Around("execution(public * ru.yandex.practicum.filmorate.service..*Service.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(SERVICE_TIMER, joinPoint);
+    }
+
+    private Object time(String timerName, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer timer = timers.computeIfAbsent(
+                new OperationKey(timerName, ClassUtils.getUserClass(joinPoint.getTarget()),
+                        joinPoint.getSignature().getName()),
+                this::register);
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer register(OperationKey key) {
+        return Timer.builder(key.timerName())
+                .tag("class", key.type().getSimpleName())
+                .tag("method", key.method())
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry);
+    }
+
+    private record OperationKey(String timerName, Class<?> type, String method) {
+    }
+}
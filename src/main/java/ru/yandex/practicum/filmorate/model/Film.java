@@ -11,10 +11,10 @@ import lombok.EqualsAndHashCode;
 import lombok.experimental.FieldDefaults;
 import ru.yandex.practicum.filmorate.dto.GenreDto;
 import ru.yandex.practicum.filmorate.dto.MpaDto;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -42,5 +42,5 @@ public class Film {
     List<GenreDto> genres = new ArrayList<>();
 
     @JsonIgnore
-    Set<Long> likes = new HashSet<>();
+    Set<Long> likes = new LongHashSet();
 }
\ No newline at end of file
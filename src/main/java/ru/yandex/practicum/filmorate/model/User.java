@@ -8,9 +8,9 @@ import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.FieldDefaults;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
 
 import java.time.LocalDate;
-import java.util.HashSet;
 import java.util.Set;
 
 @Data
@@ -39,5 +39,5 @@ public class User {
     }
 
     @JsonIgnore
-    Set<Long> friends = new HashSet<>();
+    Set<Long> friends = new LongHashSet();
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.storage.db.ExportRowHandler;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Компактный бинарный формат выгрузки (порядок байт big-endian, как у DataOutputStream):
+ * <pre>
+ * "FLMX" версия:byte число_колонок:short { имя:UTF тип:byte }*
+ * { 1 { признак_null:byte значение }* }* 0
+ * </pre>
+ * Типы: 1 — long (8 байт), 2 — дата (int, дни от 1970-01-01), 3 — строка (UTF).
+ */
+class BinaryExportWriter implements ExportRowHandler {
+    static final byte[] MAGIC = "FLMX".getBytes(StandardCharsets.US_ASCII);
+    static final byte VERSION = 1;
+    static final byte TYPE_LONG = 1;
+    static final byte TYPE_DATE = 2;
+    static final byte TYPE_STRING = 3;
+
+    private final DataOutputStream out;
+    private byte[] types;
+
+    BinaryExportWriter(OutputStream out) {
+        this.out = new DataOutputStream(out);
+    }
+
+    @Override
+    public void start(ResultSetMetaData metaData) throws SQLException {
+        int count = metaData.getColumnCount();
+        types = new byte[count];
+        try {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeShort(count);
+            for (int i = 0; i < count; i++) {
+                types[i] = typeOf(metaData.getColumnType(i + 1));
+                out.writeUTF(metaData.getColumnLabel(i + 1).toLowerCase());
+                out.writeByte(types[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void row(ResultSet rs) throws SQLException {
+        try {
+            out.writeByte(1);
+            for (int i = 0; i < types.length; i++) {
+                writeValue(rs, i + 1, types[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void finish() throws IOException {
+        out.writeByte(0);
+        out.flush();
+    }
+
+    private void writeValue(ResultSet rs, int column, byte type) throws SQLException, IOException {
+        switch (type) {
+            case TYPE_LONG -> {
+                long value = rs.getLong(column);
+                if (writeNullFlag(rs.wasNull())) {
+                    out.writeLong(value);
+                }
+            }
+            case TYPE_DATE -> {
+                Date value = rs.getDate(column);
+                if (writeNullFlag(value == null)) {
+                    out.writeInt((int) value.toLocalDate().toEpochDay());
+                }
+            }
+            default -> {
+                String value = rs.getString(column);
+                if (writeNullFlag(value == null)) {
+                    out.writeUTF(value);
+                }
+            }
+        }
+    }
+
+    // Возвращает true, если за флагом должно идти значение
+    private boolean writeNullFlag(boolean isNull) throws IOException {
+        out.writeByte(isNull ? 1 : 0);
+        return !isNull;
+    }
+
+    private static byte typeOf(int sqlType) {
+        return switch (sqlType) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> TYPE_LONG;
+            case Types.DATE -> TYPE_DATE;
+            default -> TYPE_STRING;
+        };
+    }
+}
@@ -0,0 +1,247 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.dto.FriendshipDto;
+import ru.yandex.practicum.filmorate.dto.GenreDto;
+import ru.yandex.practicum.filmorate.dto.ImportReport;
+import ru.yandex.practicum.filmorate.dto.ImportRowError;
+import ru.yandex.practicum.filmorate.dto.LikeDto;
+import ru.yandex.practicum.filmorate.dto.MpaDto;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.StorageBulkChangeEvent;
+import ru.yandex.practicum.filmorate.storage.db.BulkImportDbStorage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Массовый импорт фильмов, пользователей, лайков и дружб из NDJSON или CSV.
+ * Вход читается построчно, каждая строка проходит те же проверки, что и при создании через API,
+ * и пишется пачками по {@code filmorate.import.batch-size} строк — каждая пачка в своей транзакции.
+ * Если пачка не записалась (дубликат, нарушение внешнего ключа), она повторяется построчно,
+ * чтобы сохранить корректные строки и указать номер каждой ошибочной.
+ */
+@Slf4j
+@Service
+public class BulkImportService {
+    private final FilmService filmService;
+    private final UserService userService;
+    private final BulkImportDbStorage bulkStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    @Autowired
+    public BulkImportService(FilmService filmService,
+                             UserService userService,
+                             BulkImportDbStorage bulkStorage,
+                             TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             ObjectMapper objectMapper,
+                             @Value("${filmorate.import.batch-size:1000}") int batchSize,
+                             @Value("${filmorate.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.filmService = filmService;
+        this.userService = userService;
+        this.bulkStorage = bulkStorage;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public ImportReport importData(ImportEntity entity, ImportFormat format, InputStream input) {
+        return switch (entity) {
+            case FILMS -> run(entity, format, input, Film.class, this::filmFromCsv,
+                    filmService::prepareForCreate, bulkStorage::insertFilms);
+            case USERS -> run(entity, format, input, User.class, this::userFromCsv,
+                    userService::prepareForCreate, bulkStorage::insertUsers);
+            case LIKES -> run(entity, format, input, LikeDto.class, this::likeFromCsv,
+                    BulkImportService::validateLike, bulkStorage::insertLikes);
+            case FRIENDS -> run(entity, format, input, FriendshipDto.class, this::friendshipFromCsv,
+                    BulkImportService::validateFriendship, bulkStorage::insertFriendships);
+        };
+    }
+
+    private <T> ImportReport run(ImportEntity entity,
+                                 ImportFormat format,
+                                 InputStream input,
+                                 Class<T> type,
+                                 Function<CsvRecord, T> fromCsv,
+                                 Consumer<T> validator,
+                                 Consumer<List<T>> writer) {
+        List<MemoryPoolMXBean> heapPools = heapPools();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long start = System.nanoTime();
+
+        ImportReport report = new ImportReport();
+        report.setEntity(entity.name().toLowerCase());
+        List<Row<T>> chunk = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> csvColumns = null;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == ImportFormat.CSV && csvColumns == null) {
+                    csvColumns = CsvRecord.parseHeader(line);
+                    continue;
+                }
+
+                report.setRowsRead(report.getRowsRead() + 1);
+                T value;
+                try {
+                    value = format == ImportFormat.CSV
+                            ? fromCsv.apply(CsvRecord.parse(csvColumns, line))
+                            : objectMapper.readValue(line, type);
+                    validator.accept(value);
+                } catch (Exception e) {
+                    fail(report, lineNumber, e);
+                    continue;
+                }
+
+                chunk.add(new Row<>(lineNumber, value));
+                if (chunk.size() >= batchSize) {
+                    flush(chunk, writer, report);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        flush(chunk, writer, report);
+
+        long elapsedNanos = System.nanoTime() - start;
+        report.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        report.setRowsPerSecond(elapsedNanos == 0 ? 0 : report.getRowsImported() * 1_000_000_000L / elapsedNanos);
+        report.setPeakHeapBytes(heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum());
+
+        if (report.getRowsImported() > 0) {
+            eventPublisher.publishEvent(new StorageBulkChangeEvent(report.getEntity()));
+        }
+        log.info("Импорт {}: прочитано {}, записано {}, ошибок {}, {} строк/с",
+                report.getEntity(), report.getRowsRead(), report.getRowsImported(),
+                report.getRowsFailed(), report.getRowsPerSecond());
+        return report;
+    }
+
+    private <T> void flush(List<Row<T>> chunk, Consumer<List<T>> writer, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<T> values = chunk.stream().map(Row::value).collect(Collectors.toList());
+        try {
+            transactionTemplate.executeWithoutResult(status -> writer.accept(values));
+            report.setRowsImported(report.getRowsImported() + values.size());
+        } catch (RuntimeException batchError) {
+            // Пачка откатилась целиком — повторяем построчно, чтобы найти виноватые строки
+            for (Row<T> row : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> writer.accept(List.of(row.value())));
+                    report.setRowsImported(report.getRowsImported() + 1);
+                } catch (RuntimeException rowError) {
+                    fail(report, row.line(), rowError);
+                }
+            }
+        }
+        chunk.clear();
+    }
+
+    private void fail(ImportReport report, long line, Exception e) {
+        report.setRowsFailed(report.getRowsFailed() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+            report.getErrors().add(new ImportRowError(line, cause.getMessage()));
+        }
+    }
+
+    private Film filmFromCsv(CsvRecord record) {
+        Film film = new Film();
+        film.setName(record.get("name"));
+        film.setDescription(record.get("description"));
+        film.setReleaseDate(LocalDate.parse(record.require("releaseDate")));
+        film.setDuration(Integer.parseInt(record.require("duration")));
+        film.setMpa(new MpaDto(Long.parseLong(record.require("mpa")), null, null));
+        // Жанры перечисляются через "|", например 1|2
+        String genres = record.get("genres");
+        if (genres != null) {
+            film.setGenres(Arrays.stream(genres.split("\\|"))
+                    .map(genreId -> new GenreDto(Long.parseLong(genreId.trim()), null))
+                    .collect(Collectors.toList()));
+        }
+        return film;
+    }
+
+    private User userFromCsv(CsvRecord record) {
+        User user = new User();
+        user.setEmail(record.get("email"));
+        user.setLogin(record.get("login"));
+        user.setName(record.get("name"));
+        String birthday = record.get("birthday");
+        user.setBirthday(birthday == null ? null : LocalDate.parse(birthday));
+        return user;
+    }
+
+    private LikeDto likeFromCsv(CsvRecord record) {
+        return new LikeDto(Long.parseLong(record.require("filmId")), Long.parseLong(record.require("userId")));
+    }
+
+    private FriendshipDto friendshipFromCsv(CsvRecord record) {
+        return new FriendshipDto(Long.parseLong(record.require("userId")),
+                Long.parseLong(record.require("friendId")));
+    }
+
+    private static void validateLike(LikeDto like) {
+        if (like.getFilmId() == null || like.getUserId() == null) {
+            throw new ValidationException("Должны быть указаны filmId и userId");
+        }
+    }
+
+    private static void validateFriendship(FriendshipDto friendship) {
+        if (friendship.getUserId() == null || friendship.getFriendId() == null) {
+            throw new ValidationException("Должны быть указаны userId и friendId");
+        }
+        if (friendship.getUserId().equals(friendship.getFriendId())) {
+            throw new ValidationException("Пользователь не может добавить самого себя в друзья");
+        }
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .collect(Collectors.toList());
+    }
+
+    private record Row<T>(long line, T value) {
+    }
+}
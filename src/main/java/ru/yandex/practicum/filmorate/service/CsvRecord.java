@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Строка CSV с доступом к полям по именам колонок из заголовка.
+ * Поддерживаются кавычки и экранирование "" внутри них; переводы строк внутри полей не поддерживаются.
+ */
+class CsvRecord {
+    private final Map<String, Integer> columns;
+    private final List<String> values;
+
+    private CsvRecord(Map<String, Integer> columns, List<String> values) {
+        this.columns = columns;
+        this.values = values;
+    }
+
+    static Map<String, Integer> parseHeader(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = split(line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        return columns;
+    }
+
+    static CsvRecord parse(Map<String, Integer> columns, String line) {
+        return new CsvRecord(columns, split(line));
+    }
+
+    /**
+     * Значение колонки или null, если колонки нет или значение пустое.
+     */
+    String get(String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    String require(String column) {
+        String value = get(column);
+        if (value == null) {
+            throw new ValidationException("Не заполнена колонка " + column);
+        }
+        return value;
+    }
+
+    private static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new ValidationException("Незакрытая кавычка в строке CSV");
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
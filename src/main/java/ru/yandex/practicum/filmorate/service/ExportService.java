@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.storage.db.ExportTable;
+import ru.yandex.practicum.filmorate.storage.db.TableExportDbStorage;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Выгрузка таблиц в gzip-сжатый NDJSON или бинарный формат. Строки пишутся в поток прямо из курсора,
+ * так что память не растёт с размером таблицы.
+ */
+@Slf4j
+@Service
+public class ExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final TableExportDbStorage exportStorage;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ExportService(TableExportDbStorage exportStorage, ObjectMapper objectMapper) {
+        this.exportStorage = exportStorage;
+        this.objectMapper = objectMapper;
+    }
+
+    public static String fileName(ExportTable table, ExportFormat format) {
+        return table.getTableName() + "." + format.getExtension() + ".gz";
+    }
+
+    /**
+     * Пишет таблицу в поток. Поток не закрывается — им владеет вызывающий код.
+     */
+    public void export(ExportTable table, ExportFormat format, OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+        BufferedOutputStream buffered = new BufferedOutputStream(gzip, BUFFER_SIZE);
+        try {
+            if (format == ExportFormat.NDJSON) {
+                NdjsonExportWriter writer = new NdjsonExportWriter(objectMapper.getFactory(), buffered);
+                exportStorage.export(table, writer);
+                writer.finish();
+            } else {
+                BinaryExportWriter writer = new BinaryExportWriter(buffered);
+                exportStorage.export(table, writer);
+                writer.finish();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        buffered.flush();
+        gzip.finish();
+    }
+
+    /**
+     * Выгружает все таблицы в каталог. Файл появляется под итоговым именем только после полной записи.
+     */
+    public void exportAll(Path directory, ExportFormat format) throws IOException {
+        Files.createDirectories(directory);
+        for (ExportTable table : ExportTable.values()) {
+            Path target = directory.resolve(fileName(table, format));
+            Path temp = directory.resolve(target.getFileName() + ".part");
+            long start = System.nanoTime();
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                export(table, format, out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Выгружена таблица {} в {} ({} байт, {} мс)", table.getTableName(), target,
+                    Files.size(target), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
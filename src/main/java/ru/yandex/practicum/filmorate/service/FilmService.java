@@ -7,45 +7,92 @@ import ru.yandex.practicum.filmorate.dto.GenreDto;
 import ru.yandex.practicum.filmorate.dto.MpaDto;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.LikesMatrixIndex;
+import ru.yandex.practicum.filmorate.index.PopularityLeaderboard;
+import ru.yandex.practicum.filmorate.index.SearchField;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.film.Genre;
 import ru.yandex.practicum.filmorate.model.film.RatingMPA;
-import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 public class FilmService {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_IDS = 1000;
+    private static final int MAX_RECOMMENDATIONS = 100;
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
+    private final PopularityLeaderboard leaderboard;
+    private final LikesMatrixIndex likesMatrix;
+    private final FilmSearchIndex searchIndex;
     private final LocalDate minReleaseDate = LocalDate.of(1895, 12, 28);
 
     @Autowired
-    public FilmService(@Qualifier("filmDbStorage") FilmStorage filmStorage,
-                       @Qualifier("userDbStorage") UserStorage userStorage) {
+    public FilmService(@Qualifier("filmStorage") FilmStorage filmStorage,
+                       @Qualifier("userStorage") UserStorage userStorage,
+                       PopularityLeaderboard leaderboard,
+                       LikesMatrixIndex likesMatrix,
+                       FilmSearchIndex searchIndex) {
         this.filmStorage = filmStorage;
         this.userStorage = userStorage;
+        this.leaderboard = leaderboard;
+        this.likesMatrix = likesMatrix;
+        this.searchIndex = searchIndex;
     }
 
     public List<Film> findAll() {
         return filmStorage.findAll();
     }
 
+    public List<Film> findPage(Long after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        return filmStorage.findPage(after == null ? 0 : after, pageSize);
+    }
+
+    public void streamAll(Consumer<Film> consumer) {
+        filmStorage.streamAll(consumer);
+    }
+
     public Film findById(Long filmId) {
         return findFilm(filmId);
     }
 
+    /**
+     * Фильмы по списку id в порядке запроса; несуществующие id пропускаются.
+     */
+    public List<Film> findAllById(Collection<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new ValidationException("За один запрос можно получить не больше " + MAX_BATCH_IDS + " фильмов");
+        }
+        return filmStorage.findAllById(ids);
+    }
+
     public Film create(Film film) {
-        validateFilmForCreate(film);
-        validateAndProcessFilm(film);
-        return filmStorage.create(film);
+        prepareForCreate(film);
+        Film created = filmStorage.create(film);
+        leaderboard.filmCreated(created.getId());
+        searchIndex.filmCreated(created);
+        return created;
     }
 
 
@@ -53,31 +100,102 @@ public class FilmService {
         if (film.getId() == null) {
             throw new ValidationException("ID фильма должен быть указан для обновления");
         }
-        findFilm(film.getId()); // Проверяем, что фильм существует
+        checkFilmExists(film.getId());
         validateFilmForUpdate(film);
         validateAndProcessFilm(film);
-        return filmStorage.update(film);
+        Film updated = filmStorage.update(film);
+        searchIndex.filmUpdated(updated);
+        return updated;
     }
 
     public void delete(Long filmId) {
-        findFilm(filmId);
+        checkFilmExists(filmId);
         filmStorage.delete(filmId);
+        leaderboard.filmDeleted(filmId);
+        likesMatrix.filmDeleted(filmId);
+        searchIndex.filmDeleted(filmId);
     }
 
     public void addLike(Long filmId, Long userId) {
-        findFilm(filmId);
-        findUser(userId);
-        filmStorage.addLike(filmId, userId);
+        checkFilmExists(filmId);
+        checkUserExists(userId);
+        leaderboard.changeLikes(filmId, 1, () -> likesMatrix.likeAdded(filmId, userId, () -> {
+            filmStorage.addLike(filmId, userId);
+            return true;
+        }));
     }
 
     public void removeLike(Long filmId, Long userId) {
-        findFilm(filmId);
-        findUser(userId);
-        filmStorage.removeLike(filmId, userId);
+        checkFilmExists(filmId);
+        checkUserExists(userId);
+        leaderboard.changeLikes(filmId, -1,
+                () -> likesMatrix.likeRemoved(filmId, userId, () -> filmStorage.removeLike(filmId, userId)));
     }
 
-    public List<Film> getPopularFilms(Integer count) {
-        return filmStorage.getPopularFilms(count);
+    public List<Film> getPopularFilms(Integer count, Long genreId, Integer year) {
+        if (count == null || count <= 0) {
+            throw new ValidationException("Число популярных фильмов должно быть положительным");
+        }
+        // Неизвестный жанр — 404, как и при создании фильма
+        if (genreId != null) {
+            Genre.fromId(genreId);
+        }
+        // Фильмов вне этого диапазона быть не может, а слишком большой год не превратить в дату
+        if (year != null && (year < minReleaseDate.getYear() || year > LocalDate.now().getYear())) {
+            throw new ValidationException(String.format("Год выпуска должен быть от %d до %d",
+                    minReleaseDate.getYear(), LocalDate.now().getYear()));
+        }
+        // Рейтинг в памяти общий, без фильтров; пока он не прогрет, отвечаем запросом к хранилищу
+        if (genreId != null || year != null || !leaderboard.isReady()) {
+            return filmStorage.getPopularFilms(count, genreId, year);
+        }
+        return filmStorage.findAllById(leaderboard.topFilmIds(count));
+    }
+
+    /**
+     * Фильмы, которые понравились пользователям с похожими лайками, но ещё не понравились этому пользователю.
+     */
+    public List<Film> getRecommendations(Long userId, int limit) {
+        if (limit <= 0 || limit > MAX_RECOMMENDATIONS) {
+            throw new ValidationException("Число рекомендаций должно быть от 1 до " + MAX_RECOMMENDATIONS);
+        }
+        checkUserExists(userId);
+        // Без матрицы в памяти рекомендации не считаются: самосоединение likes в SQL слишком дорогое
+        if (!likesMatrix.isReady()) {
+            return List.of();
+        }
+        long[] filmIds = likesMatrix.recommendFilms(userId, limit);
+        return filmStorage.findAllById(Arrays.stream(filmIds).boxed().collect(Collectors.toList()));
+    }
+
+    /**
+     * Поиск по названию и/или описанию: by — поля через запятую (title, description).
+     */
+    public List<Film> searchFilms(String query, String by, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Строка поиска не может быть пустой");
+        }
+        if (limit <= 0 || limit > MAX_SEARCH_RESULTS) {
+            throw new ValidationException("Число результатов поиска должно быть от 1 до " + MAX_SEARCH_RESULTS);
+        }
+        Set<SearchField> fields = EnumSet.noneOf(SearchField.class);
+        for (String field : by.split(",")) {
+            fields.add(SearchField.fromParam(field));
+        }
+        // Без индекса в памяти поиск не выполняется: LIKE '%...%' в базе просматривал бы все фильмы
+        if (!searchIndex.isReady()) {
+            return List.of();
+        }
+        long[] filmIds = searchIndex.search(query, fields, limit);
+        return filmStorage.findAllById(Arrays.stream(filmIds).boxed().collect(Collectors.toList()));
+    }
+
+    /**
+     * Проверки и нормализация MPA/жанров перед созданием фильма; используется и массовым импортом.
+     */
+    void prepareForCreate(Film film) {
+        validateFilmForCreate(film);
+        validateAndProcessFilm(film);
     }
 
     public void validatedFilm(Film film) {
@@ -109,9 +227,17 @@ public class FilmService {
                 .orElseThrow(() -> new NotFoundException(String.format("Фильм с id = %d не найден", filmId)));
     }
 
-    private User findUser(Long userId) {
-        return userStorage.findById(userId)
-                .orElseThrow(() -> new NotFoundException(String.format("Пользователь с id = %d не найден", userId)));
+    // Проверки существования не загружают жанры и лайки, которые всё равно не нужны
+    private void checkFilmExists(Long filmId) {
+        if (!filmStorage.existsById(filmId)) {
+            throw new NotFoundException(String.format("Фильм с id = %d не найден", filmId));
+        }
+    }
+
+    private void checkUserExists(Long userId) {
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException(String.format("Пользователь с id = %d не найден", userId));
+        }
     }
 
     private void validateAndProcessMpa(Film film) {
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+public enum ImportEntity {
+    FILMS, USERS, LIKES, FRIENDS;
+
+    public static ImportEntity fromPath(String value) {
+        for (ImportEntity entity : values()) {
+            if (entity.name().equalsIgnoreCase(value)) {
+                return entity;
+            }
+        }
+        throw new ValidationException("Неизвестный тип данных для импорта: " + value);
+    }
+}
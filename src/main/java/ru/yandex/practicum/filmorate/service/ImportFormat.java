@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.http.MediaType;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+public enum ImportFormat {
+    NDJSON, CSV;
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    public static ImportFormat fromMediaType(MediaType mediaType) {
+        if (MediaType.APPLICATION_NDJSON.includes(mediaType)) {
+            return NDJSON;
+        }
+        if (MediaType.valueOf(TEXT_CSV_VALUE).includes(mediaType)) {
+            return CSV;
+        }
+        throw new ValidationException("Поддерживаются только форматы NDJSON и CSV");
+    }
+}
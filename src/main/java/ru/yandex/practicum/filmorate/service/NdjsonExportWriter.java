@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import ru.yandex.practicum.filmorate.storage.db.ExportRowHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Пишет строки таблицы как NDJSON: один объект {"колонка": значение} на строку.
+ * Даты — в ISO-формате, как и в остальном API.
+ */
+class NdjsonExportWriter implements ExportRowHandler {
+    private final JsonGenerator generator;
+    private String[] names;
+    private int[] types;
+
+    NdjsonExportWriter(JsonFactory jsonFactory, OutputStream out) throws IOException {
+        this.generator = jsonFactory.createGenerator(out);
+    }
+
+    @Override
+    public void start(ResultSetMetaData metaData) throws SQLException {
+        int count = metaData.getColumnCount();
+        names = new String[count];
+        types = new int[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = metaData.getColumnLabel(i + 1).toLowerCase();
+            types[i] = metaData.getColumnType(i + 1);
+        }
+    }
+
+    @Override
+    public void row(ResultSet rs) throws SQLException {
+        try {
+            generator.writeStartObject();
+            for (int i = 0; i < names.length; i++) {
+                generator.writeFieldName(names[i]);
+                writeValue(rs, i + 1, types[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void finish() throws IOException {
+        generator.flush();
+    }
+
+    private void writeValue(ResultSet rs, int column, int type) throws SQLException, IOException {
+        switch (type) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> {
+                long value = rs.getLong(column);
+                if (rs.wasNull()) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            }
+            case Types.DATE -> {
+                Date value = rs.getDate(column);
+                generator.writeString(value == null ? null : value.toLocalDate().toString());
+            }
+            default -> generator.writeString(rs.getString(column));
+        }
+    }
+}
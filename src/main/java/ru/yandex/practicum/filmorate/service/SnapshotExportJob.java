@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Ночная выгрузка всех таблиц для аналитики в {@code filmorate.export.directory}/дата/.
+ */
+@Slf4j
+@Component
+public class SnapshotExportJob {
+    private final ExportService exportService;
+    private final Path directory;
+    private final ExportFormat format;
+
+    @Autowired
+    public SnapshotExportJob(ExportService exportService,
+                             @Value("${filmorate.export.directory:./export}") Path directory,
+                             @Value("${filmorate.export.format:ndjson}") String format) {
+        this.exportService = exportService;
+        this.directory = directory;
+        this.format = ExportFormat.fromParam(format);
+    }
+
+    @Scheduled(cron = "${filmorate.export.cron:-}")
+    public void exportSnapshot() {
+        Path target = directory.resolve(LocalDate.now().toString());
+        try {
+            exportService.exportAll(target, format);
+        } catch (IOException e) {
+            log.error("Не удалось выгрузить снимок базы в {}", target, e);
+        }
+    }
+}
@@ -1,49 +1,101 @@
 package ru.yandex.practicum.filmorate.service;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.index.FriendGraphIndex;
+import ru.yandex.practicum.filmorate.index.LikesMatrixIndex;
+import ru.yandex.practicum.filmorate.index.PopularityLeaderboard;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class UserService {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_IDS = 1000;
+    private static final int MAX_SUGGESTIONS = 100;
+
     private final UserStorage userStorage;
+    private final FriendGraphIndex friendGraph;
+    private final LikesMatrixIndex likesMatrix;
+    private final PopularityLeaderboard leaderboard;
 
     @Autowired
-    public UserService(@Qualifier("userDbStorage") UserStorage userStorage) {
+    public UserService(@Qualifier("userStorage") UserStorage userStorage,
+                       FriendGraphIndex friendGraph,
+                       LikesMatrixIndex likesMatrix,
+                       PopularityLeaderboard leaderboard) {
         this.userStorage = userStorage;
+        this.friendGraph = friendGraph;
+        this.likesMatrix = likesMatrix;
+        this.leaderboard = leaderboard;
     }
 
     public List<User> findAll() {
         return userStorage.findAll();
     }
 
+    public List<User> findPage(Long after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        return userStorage.findPage(after == null ? 0 : after, pageSize);
+    }
+
+    public void streamAll(Consumer<User> consumer) {
+        userStorage.streamAll(consumer);
+    }
+
     public User findById(Long id) {
         return findUser(id);
     }
 
+    // Пользователи по списку id в порядке запроса; несуществующие id пропускаются
+    public List<User> findAllById(Collection<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new ValidationException("За один запрос можно получить не больше " + MAX_BATCH_IDS + " пользователей");
+        }
+        return userStorage.findAllById(ids);
+    }
+
     public User create(User user) {
+        prepareForCreate(user);
+        return userStorage.create(user);
+    }
+
+    // Проверки перед созданием пользователя; используется и массовым импортом
+    void prepareForCreate(User user) {
         validateUser(user);
         checkNameExist(user);
-        return userStorage.create(user);
     }
 
     public User update(User user) {
-        findUser(user.getId());
+        checkUserExists(user.getId());
         validateUser(user);
         checkNameExist(user);
         return userStorage.update(user);
     }
 
     public void delete(Long userId) {
-        findUser(userId);
-        userStorage.delete(userId);
+        checkUserExists(userId);
+        // Хранилище удаляет лайки пользователя вместе с ним и возвращает id фильмов, с которых
+        // они сняты, — рейтинг уменьшает счётчики ровно этих фильмов. Индексы меняются внутри
+        // изменения хранилища, как при лайках, и только если удаление применилось
+        friendGraph.userDeleted(userId, () -> leaderboard.likesRemoved(
+                () -> likesMatrix.userDeleted(userId, () -> userStorage.delete(userId))));
     }
 
     public void addFriend(Long userId, Long friendId) {
@@ -51,27 +103,46 @@ public class UserService {
         if (userId.equals(friendId)) {
             throw new ValidationException("Пользователь не может добавить самого себя в друзья");
         }
-        findUser(userId);
-        findUser(friendId);
+        checkUserExists(userId);
+        checkUserExists(friendId);
 
-        userStorage.addFriend(userId, friendId);
+        friendGraph.addFriend(userId, friendId, () -> userStorage.addFriend(userId, friendId));
     }
 
     public void removeFriend(Long userId, Long friendId) {
-        findUser(userId);
-        findUser(friendId);
-        userStorage.removeFriend(userId, friendId);
+        checkUserExists(userId);
+        checkUserExists(friendId);
+        friendGraph.removeFriend(userId, friendId, () -> userStorage.removeFriend(userId, friendId));
     }
 
     public List<User> getFriends(Long userId) {
-        findUser(userId);
-        return userStorage.getFriends(userId);
+        checkUserExists(userId);
+        // Пока граф не прогрет, отвечаем запросом к хранилищу
+        if (!friendGraph.isReady()) {
+            return userStorage.getFriends(userId);
+        }
+        return userStorage.findAllById(toList(friendGraph.friendIds(userId)));
     }
 
     public List<User> getCommonFriends(Long userId, Long otherId) {
-        findUser(userId);
-        findUser(otherId);
-        return userStorage.getCommonFriends(userId, otherId);
+        checkUserExists(userId);
+        checkUserExists(otherId);
+        if (!friendGraph.isReady()) {
+            return userStorage.getCommonFriends(userId, otherId);
+        }
+        return userStorage.findAllById(toList(friendGraph.commonFriendIds(userId, otherId)));
+    }
+
+    public List<User> getFriendSuggestions(Long userId, int limit) {
+        if (limit <= 0 || limit > MAX_SUGGESTIONS) {
+            throw new ValidationException("Число рекомендаций должно быть от 1 до " + MAX_SUGGESTIONS);
+        }
+        checkUserExists(userId);
+        // Без графа в памяти рекомендации не считаются: самосоединение friends в SQL слишком дорогое
+        if (!friendGraph.isReady()) {
+            return List.of();
+        }
+        return userStorage.findAllById(toList(friendGraph.suggestFriends(userId, limit)));
     }
 
     public void validateUser(User user) {
@@ -86,12 +157,23 @@ public class UserService {
         }
     }
 
+    private static List<Long> toList(long[] ids) {
+        return Arrays.stream(ids).boxed().collect(Collectors.toList());
+    }
+
     private static void checkNameExist(User user) {
         if (user.getName() == null || user.getName().isBlank()) {
             user.setName(user.getLogin());
         }
     }
 
+    private void checkUserExists(Long userId) {
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException(
+                    String.format("Пользователь с id = %d не найден", userId));
+        }
+    }
+
     private User findUser(Long userId) {
         return userStorage.findById(userId)
                 .orElseThrow(() -> new NotFoundException(
@@ -99,7 +181,7 @@ public class UserService {
     }
 
     public void confirmFriend(Long userId, Long friendId) {
-        System.out.println("confirmFriend не используется");
+        log.debug("confirmFriend не используется: userId={}, friendId={}", userId, friendId);
     }
 
     public List<User> getFriendRequests(Long userId) {
@@ -2,14 +2,26 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Film;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
     List<Film> findAll();
 
+    List<Film> findPage(long afterId, int limit);
+
+    void streamAll(Consumer<Film> consumer);
+
     Optional<Film> findById(Long id);
 
+    boolean existsById(Long id);
+
+    List<Film> findAllById(Collection<Long> ids);
+
     Film create(Film film);
 
     Film update(Film film);
@@ -18,7 +30,17 @@ public interface FilmStorage {
 
     void addLike(Long filmId, Long userId);
 
-    void removeLike(Long filmId, Long userId);
+    boolean removeLike(Long filmId, Long userId);
+
+    default List<Film> getPopularFilms(int count) {
+        return getPopularFilms(count, null, null);
+    }
+
+    // Самые популярные фильмы; genreId и year (год выхода) необязательны и сужают выборку
+    List<Film> getPopularFilms(int count, Long genreId, Integer year);
+
+    Map<Long, Integer> getLikeCounts();
 
-    List<Film> getPopularFilms(int count);
+    // Все лайки (filmId, userId) для прогрева индексов в памяти
+    void streamLikes(BiConsumer<Long, Long> consumer);
 }
@@ -2,24 +2,49 @@ package ru.yandex.practicum.filmorate.storage;
 
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
-import ru.yandex.practicum.filmorate.model.film.Genre;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Component
 @Qualifier("inMemoryFilmStorage")
 public class InMemoryFilmStorage implements FilmStorage {
 
-    private final Map<Long, Film> films = new HashMap<>();
-    private final Map<Long, Set<Long>> likes = new HashMap<>();
-    private long nextId = 1;
-    private Set<Genre> genres = new HashSet<>();
+    private final Map<Long, Film> films = new ConcurrentHashMap<>();
+    // Лайки фильма в примитивном множестве; изменения множества синхронизируются на нём самом
+    private final Map<Long, LongHashSet> likes = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    // Изменения идут под read lock и не мешают друг другу, снимки (findAll, getPopularFilms) — под write lock
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
 
     @Override
     public List<Film> findAll() {
-        return new ArrayList<>(films.values());
+        return snapshot(() -> new ArrayList<>(films.values()));
+    }
+
+    @Override
+    public List<Film> findPage(long afterId, int limit) {
+        return films.values().stream()
+                .filter(film -> film.getId() > afterId)
+                .sorted(Comparator.comparing(Film::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        films.values().forEach(consumer);
     }
 
     @Override
@@ -27,45 +52,124 @@ public class InMemoryFilmStorage implements FilmStorage {
         return Optional.ofNullable(films.get(id));
     }
 
+    @Override
+    public boolean existsById(Long id) {
+        return films.containsKey(id);
+    }
+
+    @Override
+    public List<Film> findAllById(Collection<Long> ids) {
+        return ids.stream()
+                .distinct()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public Film create(Film film) {
-        film.setId(nextId++);
-        films.put(film.getId(), film);
-        likes.put(film.getId(), new HashSet<>());
-        return film;
+        return mutate(() -> {
+            film.setId(nextId.getAndIncrement());
+            likes.put(film.getId(), new LongHashSet());
+            films.put(film.getId(), film);
+            return film;
+        });
     }
 
     @Override
     public Film update(Film film) {
-        films.put(film.getId(), film);
-        return film;
+        return mutate(() -> {
+            films.put(film.getId(), film);
+            return film;
+        });
     }
 
     @Override
     public void delete(Long id) {
-        films.remove(id);
-        likes.remove(id);
+        mutate(() -> {
+            films.remove(id);
+            likes.remove(id);
+            return null;
+        });
     }
 
     @Override
     public void addLike(Long filmId, Long userId) {
-        likes.get(filmId).add(userId);
+        mutate(() -> {
+            LongHashSet filmLikes = filmLikes(filmId);
+            synchronized (filmLikes) {
+                return filmLikes.add(userId.longValue());
+            }
+        });
     }
 
     @Override
-    public void removeLike(Long filmId, Long userId) {
-        likes.get(filmId).remove(userId);
+    public boolean removeLike(Long filmId, Long userId) {
+        return mutate(() -> {
+            LongHashSet filmLikes = filmLikes(filmId);
+            synchronized (filmLikes) {
+                return filmLikes.remove(userId.longValue());
+            }
+        });
     }
 
     @Override
-    public List<Film> getPopularFilms(int count) {
-        return films.values().stream()
+    public List<Film> getPopularFilms(int count, Long genreId, Integer year) {
+        // Фильмы и их лайки берутся одним согласованным снимком, сортировка — уже вне блокировки
+        Map<Long, Integer> likeCounts = new HashMap<>();
+        List<Film> snapshot = snapshot(() -> {
+            likes.forEach((filmId, filmLikes) -> likeCounts.put(filmId, filmLikes.size()));
+            return new ArrayList<>(films.values());
+        });
+        return snapshot.stream()
+                .filter(film -> genreId == null || film.getGenres() != null
+                        && film.getGenres().stream().anyMatch(genre -> genreId.equals(genre.getId())))
+                .filter(film -> year == null || film.getReleaseDate() != null
+                        && film.getReleaseDate().getYear() == year)
                 .sorted((f1, f2) -> {
-                    int likes1 = likes.getOrDefault(f1.getId(), Collections.emptySet()).size();
-                    int likes2 = likes.getOrDefault(f2.getId(), Collections.emptySet()).size();
-                    return Integer.compare(likes2, likes1);  // Сортировка по убыванию лайков
+                    int byLikes = Integer.compare(likeCounts.get(f2.getId()), likeCounts.get(f1.getId()));
+                    return byLikes != 0 ? byLikes : Long.compare(f1.getId(), f2.getId());
                 })
                 .limit(count)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public Map<Long, Integer> getLikeCounts() {
+        return snapshot(() -> likes.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().size())));
+    }
+
+    @Override
+    public void streamLikes(BiConsumer<Long, Long> consumer) {
+        snapshot(() -> {
+            likes.forEach((filmId, filmLikes) -> filmLikes.forEachLong(userId -> consumer.accept(filmId, userId)));
+            return null;
+        });
+    }
+
+    private LongHashSet filmLikes(Long filmId) {
+        LongHashSet filmLikes = likes.get(filmId);
+        if (filmLikes == null) {
+            throw new NotFoundException(String.format("Фильм с id = %d не найден", filmId));
+        }
+        return filmLikes;
+    }
+
+    private <T> T mutate(Supplier<T> action) {
+        return withLock(snapshotLock.readLock(), action);
+    }
+
+    private <T> T snapshot(Supplier<T> action) {
+        return withLock(snapshotLock.writeLock(), action);
+    }
+
+    private static <T> T withLock(Lock lock, Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
 }
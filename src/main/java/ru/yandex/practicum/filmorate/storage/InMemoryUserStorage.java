@@ -2,23 +2,54 @@ package ru.yandex.practicum.filmorate.storage;
 
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Component
 @Qualifier("inMemoryUserStorage")
 public class InMemoryUserStorage implements UserStorage {
 
-    private final Map<Long, User> users = new HashMap<>();
-    private final Map<Long, Set<Long>> friends = new HashMap<>();
-    private final Map<Long, Map<Long, String>> friendshipStatuses = new HashMap<>(); // userId -> (friendId -> status)
-    private long nextId = 1;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    // Множество друзей пользователя меняется только под блокировкой его полосы (или под write lock при удалении)
+    private final Map<Long, LongHashSet> friends = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, String>> friendshipStatuses = new ConcurrentHashMap<>(); // userId -> (friendId -> status)
+    private final AtomicLong nextId = new AtomicLong(1);
+    // Изменения идут под read lock и не мешают друг другу, снимки и удаление — под write lock
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    // Операции над парой пользователей меняют записи обоих, поэтому берут блокировки их полос
+    private final StripedLocks pairLocks = new StripedLocks(LOCK_STRIPES);
 
     @Override
     public List<User> findAll() {
-        return new ArrayList<>(users.values());
+        return withLock(snapshotLock.writeLock(), () -> new ArrayList<>(users.values()));
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        return users.values().stream()
+                .filter(user -> user.getId() > afterId)
+                .sorted(Comparator.comparing(User::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        users.values().forEach(consumer);
     }
 
     @Override
@@ -26,105 +57,115 @@ public class InMemoryUserStorage implements UserStorage {
         return Optional.ofNullable(users.get(id));
     }
 
+    @Override
+    public boolean existsById(Long id) {
+        return users.containsKey(id);
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        return ids.stream()
+                .distinct()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public User create(User user) {
-        user.setId(nextId++);
-        users.put(user.getId(), user);
-        friends.put(user.getId(), new HashSet<>());
-        friendshipStatuses.put(user.getId(), new HashMap<>());
-        return user;
+        return withLock(snapshotLock.readLock(), () -> {
+            user.setId(nextId.getAndIncrement());
+            friends.put(user.getId(), new LongHashSet());
+            friendshipStatuses.put(user.getId(), new ConcurrentHashMap<>());
+            users.put(user.getId(), user);
+            return user;
+        });
     }
 
     @Override
     public User update(User user) {
-        users.put(user.getId(), user);
-        return user;
+        return withLock(snapshotLock.readLock(), () -> {
+            users.put(user.getId(), user);
+            return user;
+        });
     }
 
     @Override
-    public void delete(Long id) {
-        users.remove(id);
-        friends.remove(id);
-        friendshipStatuses.remove(id);
-        // Удаляем пользователя из списков друзей других пользователей
-        friends.values().forEach(friendSet -> friendSet.remove(id));
-        friendshipStatuses.values().forEach(statusMap -> statusMap.remove(id));
+    public long[] delete(Long id) {
+        withLock(snapshotLock.writeLock(), () -> {
+            users.remove(id);
+            friends.remove(id);
+            friendshipStatuses.remove(id);
+            // Удаляем пользователя из списков друзей других пользователей
+            friends.values().forEach(friendSet -> friendSet.remove(id.longValue()));
+            friendshipStatuses.values().forEach(statusMap -> statusMap.remove(id));
+            return null;
+        });
+        // Лайки хранит InMemoryFilmStorage, здесь снимать нечего
+        return new long[0];
     }
 
     @Override
     public void addFriend(Long userId, Long friendId) {
-        // Односторонняя дружба: userId добавляет friendId в друзья со статусом PENDING
-        friends.get(userId).add(friendId);
-        friendshipStatuses.get(userId).put(friendId, "PENDING");
-
-        // Для друга создаем запись о заявке (если её нет)
-        if (!friendshipStatuses.containsKey(friendId)) {
-            friendshipStatuses.put(friendId, new HashMap<>());
-        }
-        friendshipStatuses.get(friendId).put(userId, "PENDING");
+        withPairLock(userId, friendId, () -> {
+            // Односторонняя дружба: userId добавляет friendId в друзья со статусом PENDING
+            userFriends(userId).add(friendId.longValue());
+            statuses(userId).put(friendId, "PENDING");
+
+            // Для друга создаем запись о заявке (если её нет)
+            friendshipStatuses.computeIfAbsent(friendId, id -> new ConcurrentHashMap<>()).put(userId, "PENDING");
+            return null;
+        });
     }
 
     @Override
     public void removeFriend(Long userId, Long friendId) {
-        // Удаляем только одностороннюю связь
-        friends.get(userId).remove(friendId);
-        friendshipStatuses.get(userId).remove(friendId);
-
-        // У друга тоже удаляем информацию об этой заявке
-        if (friendshipStatuses.containsKey(friendId)) {
-            friendshipStatuses.get(friendId).remove(userId);
-        }
+        withPairLock(userId, friendId, () -> {
+            // Удаляем только одностороннюю связь
+            userFriends(userId).remove(friendId.longValue());
+            statuses(userId).remove(friendId);
+
+            // У друга тоже удаляем информацию об этой заявке
+            Map<Long, String> friendStatuses = friendshipStatuses.get(friendId);
+            if (friendStatuses != null) {
+                friendStatuses.remove(userId);
+            }
+            return null;
+        });
     }
 
     @Override
     public void confirmFriend(Long userId, Long friendId) {
-        // userId подтверждает заявку от friendId
-        // Проверяем, что friendId отправил заявку userId
-        if (friendshipStatuses.containsKey(userId) &&
-                friendshipStatuses.get(userId).containsKey(friendId) &&
-                "PENDING".equals(friendshipStatuses.get(userId).get(friendId))) {
+        withPairLock(userId, friendId, () -> {
+            // userId подтверждает заявку от friendId
+            // Проверяем, что friendId отправил заявку userId
+            Map<Long, String> userStatuses = friendshipStatuses.get(userId);
+            if (userStatuses == null || !"PENDING".equals(userStatuses.get(friendId))) {
+                throw new RuntimeException("Заявка в друзья не найдена или уже обработана");
+            }
 
             // Меняем статус на CONFIRMED у обоих
-            friendshipStatuses.get(userId).put(friendId, "CONFIRMED");
-
-            if (friendshipStatuses.containsKey(friendId)) {
-                friendshipStatuses.get(friendId).put(userId, "CONFIRMED");
+            userStatuses.put(friendId, "CONFIRMED");
+            Map<Long, String> friendStatuses = friendshipStatuses.get(friendId);
+            if (friendStatuses != null) {
+                friendStatuses.put(userId, "CONFIRMED");
             }
 
-            friends.get(userId).add(friendId);
-        } else {
-            throw new RuntimeException("Заявка в друзья не найдена или уже обработана");
-        }
+            userFriends(userId).add(friendId.longValue());
+            return null;
+        });
     }
 
     @Override
     public List<User> getFriendRequests(Long userId) {
         // Получаем список пользователей, которые отправили заявку данному пользователю
-        if (!friendshipStatuses.containsKey(userId)) {
-            return new ArrayList<>();
-        }
-
-        return friendshipStatuses.get(userId).entrySet().stream()
-                .filter(entry -> "PENDING".equals(entry.getValue()))
-                .map(Map.Entry::getKey)
-                .map(users::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        return usersWithStatus(userId, "PENDING");
     }
 
     @Override
     public List<User> getFriends(Long userId) {
         // Получаем список подтвержденных друзей
-        if (!friendshipStatuses.containsKey(userId)) {
-            return new ArrayList<>();
-        }
-
-        return friendshipStatuses.get(userId).entrySet().stream()
-                .filter(entry -> "CONFIRMED".equals(entry.getValue()))
-                .map(Map.Entry::getKey)
-                .map(users::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        return usersWithStatus(userId, "CONFIRMED");
     }
 
     @Override
@@ -143,4 +184,59 @@ public class InMemoryUserStorage implements UserStorage {
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public void streamFriendships(BiConsumer<Long, Long> consumer) {
+        withLock(snapshotLock.writeLock(), () -> {
+            friends.forEach((userId, friendIds) -> {
+                for (long friendId : friendIds.toSortedArray()) {
+                    consumer.accept(userId, friendId);
+                }
+            });
+            return null;
+        });
+    }
+
+    private List<User> usersWithStatus(Long userId, String status) {
+        Map<Long, String> userStatuses = friendshipStatuses.get(userId);
+        if (userStatuses == null) {
+            return new ArrayList<>();
+        }
+
+        return userStatuses.entrySet().stream()
+                .filter(entry -> status.equals(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private LongHashSet userFriends(Long userId) {
+        LongHashSet userFriends = friends.get(userId);
+        if (userFriends == null) {
+            throw new NotFoundException(String.format("Пользователь с id = %d не найден", userId));
+        }
+        return userFriends;
+    }
+
+    private Map<Long, String> statuses(Long userId) {
+        Map<Long, String> userStatuses = friendshipStatuses.get(userId);
+        if (userStatuses == null) {
+            throw new NotFoundException(String.format("Пользователь с id = %d не найден", userId));
+        }
+        return userStatuses;
+    }
+
+    private <T> T withPairLock(Long userId, Long friendId, Supplier<T> action) {
+        return withLock(snapshotLock.readLock(), () -> pairLocks.withLocks(userId, friendId, action));
+    }
+
+    private static <T> T withLock(Lock lock, Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
 }
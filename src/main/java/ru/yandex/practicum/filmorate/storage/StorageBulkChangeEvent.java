@@ -0,0 +1,8 @@
+package ru.yandex.practicum.filmorate.storage;
+
+/**
+ * Публикуется после массовых изменений в базе в обход FilmStorage/UserStorage (например, импорта).
+ * Кэши и индексы в памяти по нему перечитывают или сбрасывают свои данные.
+ */
+public record StorageBulkChangeEvent(String entity) {
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Блокировки, разбитые на полосы по id: операции над разными id почти не ждут друг друга.
+ * Пара id всегда захватывается в порядке номеров полос, поэтому взаимных блокировок нет.
+ */
+class StripedLocks {
+    private final Lock[] stripes;
+
+    StripedLocks(int stripeCount) {
+        stripes = new Lock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    <T> T withLocks(long firstId, long secondId, Supplier<T> action) {
+        int first = stripeIndex(firstId);
+        int second = stripeIndex(secondId);
+        Lock outer = stripes[Math.min(first, second)];
+        Lock inner = stripes[Math.max(first, second)];
+
+        outer.lock();
+        try {
+            if (inner != outer) {
+                inner.lock();
+            }
+            try {
+                return action.get();
+            } finally {
+                if (inner != outer) {
+                    inner.unlock();
+                }
+            }
+        } finally {
+            outer.unlock();
+        }
+    }
+
+    private int stripeIndex(long id) {
+        return (Long.hashCode(id) & Integer.MAX_VALUE) % stripes.length;
+    }
+}
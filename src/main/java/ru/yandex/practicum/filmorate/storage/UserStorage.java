@@ -2,19 +2,31 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     List<User> findAll();
 
+    List<User> findPage(long afterId, int limit);
+
+    void streamAll(Consumer<User> consumer);
+
     Optional<User> findById(Long id);
 
+    boolean existsById(Long id);
+
+    List<User> findAllById(Collection<Long> ids);
+
     User create(User user);
 
     User update(User user);
 
-    void delete(Long id);
+    // Удаляет пользователя с его дружбами и лайками; возвращает id фильмов, с которых сняты его лайки
+    long[] delete(Long id);
 
     void addFriend(Long userId, Long friendId);
 
@@ -27,4 +39,7 @@ public interface UserStorage {
     void confirmFriend(Long userId, Long friendId);
 
     List<User> getFriendRequests(Long userId);
+
+    // Все связи дружбы (userId, friendId) для прогрева индексов в памяти
+    void streamFriendships(BiConsumer<Long, Long> consumer);
 }
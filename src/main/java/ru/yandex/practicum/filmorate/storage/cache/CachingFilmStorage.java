@@ -0,0 +1,145 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.context.event.EventListener;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.StorageBulkChangeEvent;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш фильмов по id перед хранилищем. Кэшируются только чтения по id, списки и рейтинги
+ * всегда идут в хранилище. Любое изменение фильма (в том числе его лайков) сбрасывает запись.
+ */
+public class CachingFilmStorage implements FilmStorage {
+    private final FilmStorage delegate;
+    private final Cache<Long, Film> cache;
+
+    public CachingFilmStorage(FilmStorage delegate, Cache<Long, Film> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public List<Film> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Film> findPage(long afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        delegate.streamAll(consumer);
+    }
+
+    @Override
+    public Optional<Film> findById(Long id) {
+        // Отсутствующий фильм не кэшируется: загрузчик вернёт null
+        return Optional.ofNullable(cache.get(id, key -> delegate.findById(key).orElse(null)));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        // Проверка существования не загружает фильм в кэш, но пользуется уже закэшированным
+        return cache.getIfPresent(id) != null || delegate.existsById(id);
+    }
+
+    @Override
+    public List<Film> findAllById(Collection<Long> ids) {
+        Map<Long, Film> films = new HashMap<>(cache.getAllPresent(ids));
+        List<Long> missing = ids.stream()
+                .distinct()
+                .filter(id -> !films.containsKey(id))
+                .collect(Collectors.toList());
+        // Промахи не кладём в кэш: пакетная загрузка не видит invalidate(), случившийся во время
+        // запроса, и могла бы записать в кэш уже устаревший фильм. Кэш наполняет только findById
+        if (!missing.isEmpty()) {
+            delegate.findAllById(missing).forEach(film -> films.put(film.getId(), film));
+        }
+        return ids.stream()
+                .distinct()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Film create(Film film) {
+        return delegate.create(film);
+    }
+
+    @Override
+    public Film update(Film film) {
+        try {
+            return delegate.update(film);
+        } finally {
+            cache.invalidate(film.getId());
+        }
+    }
+
+    @Override
+    public void delete(Long id) {
+        try {
+            delegate.delete(id);
+        } finally {
+            cache.invalidate(id);
+        }
+    }
+
+    @Override
+    public void addLike(Long filmId, Long userId) {
+        try {
+            delegate.addLike(filmId, userId);
+        } finally {
+            cache.invalidate(filmId);
+        }
+    }
+
+    @Override
+    public boolean removeLike(Long filmId, Long userId) {
+        try {
+            return delegate.removeLike(filmId, userId);
+        } finally {
+            cache.invalidate(filmId);
+        }
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count, Long genreId, Integer year) {
+        return delegate.getPopularFilms(count, genreId, year);
+    }
+
+    @Override
+    public Map<Long, Integer> getLikeCounts() {
+        return delegate.getLikeCounts();
+    }
+
+    @Override
+    public void streamLikes(BiConsumer<Long, Long> consumer) {
+        delegate.streamLikes(consumer);
+    }
+
+    /**
+     * Сбрасывает весь кэш, например после удаления пользователя вместе с его лайками.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @EventListener
+    public void onBulkChange(StorageBulkChangeEvent event) {
+        cache.invalidateAll();
+    }
+}
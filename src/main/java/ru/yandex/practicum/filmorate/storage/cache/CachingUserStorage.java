@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.context.event.EventListener;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.StorageBulkChangeEvent;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш пользователей по id перед хранилищем. Операции с дружбой меняют записи обоих пользователей,
+ * поэтому сбрасывают обе записи.
+ */
+public class CachingUserStorage implements UserStorage {
+    private final UserStorage delegate;
+    private final Cache<Long, User> cache;
+    private final Runnable onUserDeleted;
+
+    public CachingUserStorage(UserStorage delegate, Cache<Long, User> cache, Runnable onUserDeleted) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.onUserDeleted = onUserDeleted;
+    }
+
+    @Override
+    public List<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        delegate.streamAll(consumer);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(cache.get(id, key -> delegate.findById(key).orElse(null)));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return cache.getIfPresent(id) != null || delegate.existsById(id);
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        Map<Long, User> users = new HashMap<>(cache.getAllPresent(ids));
+        List<Long> missing = ids.stream()
+                .distinct()
+                .filter(id -> !users.containsKey(id))
+                .collect(Collectors.toList());
+        // Как и в CachingFilmStorage, промахи не кэшируются: пакетная загрузка могла прочитать
+        // пользователя до invalidate() из update/addFriend/delete и вернуть в кэш устаревшую копию
+        if (!missing.isEmpty()) {
+            delegate.findAllById(missing).forEach(user -> users.put(user.getId(), user));
+        }
+        return ids.stream()
+                .distinct()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public User create(User user) {
+        return delegate.create(user);
+    }
+
+    @Override
+    public User update(User user) {
+        try {
+            return delegate.update(user);
+        } finally {
+            cache.invalidate(user.getId());
+        }
+    }
+
+    @Override
+    public long[] delete(Long id) {
+        try {
+            return delegate.delete(id);
+        } finally {
+            // Пользователь мог быть в друзьях у других и ставить лайки — их записи тоже устарели
+            cache.invalidateAll();
+            onUserDeleted.run();
+        }
+    }
+
+    @Override
+    public void addFriend(Long userId, Long friendId) {
+        try {
+            delegate.addFriend(userId, friendId);
+        } finally {
+            cache.invalidateAll(List.of(userId, friendId));
+        }
+    }
+
+    @Override
+    public void removeFriend(Long userId, Long friendId) {
+        try {
+            delegate.removeFriend(userId, friendId);
+        } finally {
+            cache.invalidateAll(List.of(userId, friendId));
+        }
+    }
+
+    @Override
+    public List<User> getFriends(Long userId) {
+        return delegate.getFriends(userId);
+    }
+
+    @Override
+    public List<User> getCommonFriends(Long userId, Long otherId) {
+        return delegate.getCommonFriends(userId, otherId);
+    }
+
+    @Override
+    public void confirmFriend(Long userId, Long friendId) {
+        try {
+            delegate.confirmFriend(userId, friendId);
+        } finally {
+            cache.invalidateAll(List.of(userId, friendId));
+        }
+    }
+
+    @Override
+    public List<User> getFriendRequests(Long userId) {
+        return delegate.getFriendRequests(userId);
+    }
+
+    @Override
+    public void streamFriendships(BiConsumer<Long, Long> consumer) {
+        delegate.streamFriendships(consumer);
+    }
+
+    @EventListener
+    public void onBulkChange(StorageBulkChangeEvent event) {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.Duration;
+
+/**
+ * Включает кэширующие хранилища (профиль cache или filmorate.cache.enabled=true).
+ * Бины называются filmStorage/userStorage и помечены @Primary, поэтому сервисы получают их
+ * вместо FilmDbStorage/UserDbStorage; без этой конфигурации сервисы работают с базой напрямую.
+ * Caffeine вытесняет записи по W-TinyLFU, метрики попаданий/промахов/вытеснений публикуются
+ * как cache.gets, cache.evictions и cache.size с тегом cache=films|users.
+ */
+@Configuration
+@ConditionalOnProperty(name = "filmorate.cache.enabled", havingValue = "true")
+public class StorageCacheConfig {
+    private final long maximumSize;
+    private final Duration expireAfterWrite;
+
+    public StorageCacheConfig(@Value("${filmorate.cache.maximum-size:10000}") long maximumSize,
+                              @Value("${filmorate.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.maximumSize = maximumSize;
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    @Bean
+    @Primary
+    public CachingFilmStorage filmStorage(@Qualifier("filmDbStorage") FilmStorage filmDbStorage,
+                                          MeterRegistry meterRegistry) {
+        return new CachingFilmStorage(filmDbStorage, buildCache("films", meterRegistry));
+    }
+
+    @Bean
+    @Primary
+    public CachingUserStorage userStorage(@Qualifier("userDbStorage") UserStorage userDbStorage,
+                                          CachingFilmStorage filmStorage,
+                                          MeterRegistry meterRegistry) {
+        // Удаление пользователя удаляет и его лайки, поэтому кэш фильмов тоже сбрасывается
+        return new CachingUserStorage(userDbStorage, buildCache("users", meterRegistry), filmStorage::invalidateAll);
+    }
+
+    private <V> Cache<Long, V> buildCache(String name, MeterRegistry meterRegistry) {
+        Cache<Long, V> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+}
@@ -0,0 +1,142 @@
+package ru.yandex.practicum.filmorate.storage.db;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.dto.FriendshipDto;
+import ru.yandex.practicum.filmorate.dto.GenreDto;
+import ru.yandex.practicum.filmorate.dto.LikeDto;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.film.RatingMPA;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Пакетная запись для массового импорта: каждый метод пишет всю пачку JDBC-батчами.
+ * Транзакцией управляет вызывающий код, чтобы при ошибке можно было повторить пачку построчно.
+ */
+@Repository
+public class BulkImportDbStorage {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public BulkImportDbStorage(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertFilms(List<Film> films) {
+        String sql = "INSERT INTO films (name, description, release_date, duration, mpa_rating) " +
+                "VALUES (?, ?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Film film = films.get(i);
+                        ps.setString(1, film.getName());
+                        ps.setString(2, film.getDescription());
+                        ps.setDate(3, Date.valueOf(film.getReleaseDate()));
+                        ps.setInt(4, film.getDuration());
+                        ps.setString(5, RatingMPA.fromId(film.getMpa().getId()).getCode());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return films.size();
+                    }
+                }, keyHolder);
+        assignKeys(keyHolder, films.size(), (i, id) -> films.get(i).setId(id));
+
+        List<Object[]> genres = new ArrayList<>();
+        for (Film film : films) {
+            if (film.getGenres() == null) {
+                continue;
+            }
+            film.getGenres().stream()
+                    .map(GenreDto::getId)
+                    .collect(Collectors.toCollection(LinkedHashSet::new))
+                    .forEach(genreId -> genres.add(new Object[]{film.getId(), genreId}));
+        }
+        if (!genres.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", genres);
+        }
+    }
+
+    public void insertUsers(List<User> users) {
+        String sql = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        User user = users.get(i);
+                        ps.setString(1, user.getEmail());
+                        ps.setString(2, user.getLogin());
+                        ps.setString(3, user.getName());
+                        if (user.getBirthday() != null) {
+                            ps.setDate(4, Date.valueOf(user.getBirthday()));
+                        } else {
+                            ps.setNull(4, Types.DATE);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                }, keyHolder);
+        assignKeys(keyHolder, users.size(), (i, id) -> users.get(i).setId(id));
+    }
+
+    public void insertLikes(List<LikeDto> likes) {
+        jdbcTemplate.batchUpdate("INSERT INTO likes (film_id, user_id) VALUES (?, ?)",
+                likes.stream()
+                        .map(like -> new Object[]{like.getFilmId(), like.getUserId()})
+                        .collect(Collectors.toList()));
+
+        // like_count сдвигается одним UPDATE на фильм, а не на каждый лайк
+        Map<Long, Integer> addedByFilm = new HashMap<>();
+        likes.forEach(like -> addedByFilm.merge(like.getFilmId(), 1, Integer::sum));
+        jdbcTemplate.batchUpdate("UPDATE films SET like_count = like_count + ? WHERE id = ?",
+                addedByFilm.entrySet().stream()
+                        .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                        .collect(Collectors.toList()));
+    }
+
+    public void insertFriendships(List<FriendshipDto> friendships) {
+        jdbcTemplate.batchUpdate("INSERT INTO friends (user_id, friend_id) VALUES (?, ?)",
+                friendships.stream()
+                        .map(friendship -> new Object[]{friendship.getUserId(), friendship.getFriendId()})
+                        .collect(Collectors.toList()));
+    }
+
+    private static void assignKeys(KeyHolder keyHolder, int expected, KeyAssigner assigner) {
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != expected) {
+            throw new IllegalStateException(
+                    String.format("Ожидалось %d сгенерированных id, получено %d", expected, keys.size()));
+        }
+        for (int i = 0; i < expected; i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            assigner.assign(i, id.longValue());
+        }
+    }
+
+    @FunctionalInterface
+    private interface KeyAssigner {
+        void assign(int index, long id);
+    }
+}
@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.storage.db;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Получает строки выгружаемой таблицы по одной, прямо из курсора.
+ */
+public interface ExportRowHandler {
+    // Вызывается один раз до первой строки, в том числе для пустой таблицы
+    void start(ResultSetMetaData metaData) throws SQLException;
+
+    void row(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.storage.db;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+/**
+ * Таблицы, доступные для выгрузки. Строки читаются в порядке первичного ключа, чтобы выгрузки
+ * разных дней можно было сравнивать построчно.
+ */
+public enum ExportTable {
+    FILMS("films", "SELECT id, name, description, release_date, duration, mpa_rating, like_count " +
+            "FROM films ORDER BY id"),
+    FILM_GENRES("film_genres", "SELECT film_id, genre_id FROM film_genres ORDER BY film_id, genre_id"),
+    LIKES("likes", "SELECT film_id, user_id FROM likes ORDER BY film_id, user_id"),
+    USERS("users", "SELECT id, email, login, name, birthday FROM users ORDER BY id"),
+    FRIENDS("friends", "SELECT user_id, friend_id FROM friends ORDER BY user_id, friend_id");
+
+    private final String tableName;
+    private final String sql;
+
+    ExportTable(String tableName, String sql) {
+        this.tableName = tableName;
+        this.sql = sql;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    public static ExportTable fromPath(String value) {
+        for (ExportTable table : values()) {
+            if (table.tableName.equalsIgnoreCase(value)) {
+                return table;
+            }
+        }
+        throw new ValidationException("Неизвестная таблица для выгрузки: " + value);
+    }
+}
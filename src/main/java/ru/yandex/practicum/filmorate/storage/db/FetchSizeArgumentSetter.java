@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.storage.db;
+
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Параметры запроса вместе с размером порции строк, которую драйвер забирает за одно обращение.
+ * Для списков, которые читаются целиком, крупная порция сокращает число обращений к базе.
+ */
+class FetchSizeArgumentSetter extends ArgumentPreparedStatementSetter {
+    private final int fetchSize;
+    private final Object[] args;
+
+    FetchSizeArgumentSetter(int fetchSize, Object... args) {
+        super(args);
+        this.fetchSize = fetchSize;
+        this.args = args;
+    }
+
+    @Override
+    public void setValues(PreparedStatement ps) throws SQLException {
+        ps.setFetchSize(fetchSize);
+        super.setValues(ps);
+    }
+
+    Object[] getArgs() {
+        return args;
+    }
+}
@@ -1,29 +1,52 @@
 package ru.yandex.practicum.filmorate.storage.db;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.dto.GenreDto;
 import ru.yandex.practicum.filmorate.dto.MpaDto;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.film.Genre;
 import ru.yandex.practicum.filmorate.model.film.RatingMPA;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Repository
+@Qualifier("filmStorage")
 public class FilmDbStorage implements FilmStorage {
 
+    // Максимальное число id в одном IN (...) при догрузке жанров и лайков
+    private static final int HYDRATION_CHUNK_SIZE = 1000;
+    // Сколько строк драйвер забирает за раз при потоковом чтении; столько же фильмов догружается пачкой
+    private static final int STREAM_FETCH_SIZE = 500;
+    // Порция строк для findAll: весь каталог читается в память, поэтому порция крупнее
+    private static final int LIST_FETCH_SIZE = 1000;
+
     private final JdbcTemplate jdbcTemplate;
 
     @Autowired
@@ -48,10 +71,11 @@ public class FilmDbStorage implements FilmStorage {
                 // Создаем MpaDto
                 film.setMpa(new MpaDto(rating.getId(), rating.getCode(), rating.getDescription()));
             } catch (Exception e) {
-                System.err.println("Error loading MPA rating for film " + film.getId() + ": " + e.getMessage());
+                log.warn("Не удалось загрузить рейтинг MPA: filmId={}, mpaCode={}, error={}", film.getId(), mpaCode, e.getMessage());
             }
         } else {
-            System.err.println("Warning: mpa_rating is null or empty for film " + film.getId());
+            // Рейтинг необязателен, а маппер вызывается на каждую строку: WARN засыпал бы лог при каждом findAll
+            log.debug("У фильма не задан рейтинг MPA: filmId={}", film.getId());
         }
 
         return film;
@@ -60,20 +84,74 @@ public class FilmDbStorage implements FilmStorage {
     @Override
     public List<Film> findAll() {
         String sql = "SELECT * FROM films";
-        List<Film> films = jdbcTemplate.query(sql, filmRowMapper);
-        films.forEach(this::loadFilmData);
+        List<Film> films = jdbcTemplate.query(sql, new FetchSizeArgumentSetter(LIST_FETCH_SIZE), filmRowMapper);
+        loadFilmsData(films);
+        return films;
+    }
+
+    @Override
+    public List<Film> findPage(long afterId, int limit) {
+        String sql = "SELECT * FROM films WHERE id > ? ORDER BY id LIMIT ?";
+        List<Film> films = jdbcTemplate.query(sql, filmRowMapper, afterId, limit);
+        loadFilmsData(films);
         return films;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Film> consumer) {
+        String sql = "SELECT * FROM films ORDER BY id";
+        List<Film> batch = new ArrayList<>(STREAM_FETCH_SIZE);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            batch.add(filmRowMapper.mapRow(rs, rs.getRow()));
+            if (batch.size() == STREAM_FETCH_SIZE) {
+                flushBatch(batch, consumer);
+            }
+        });
+        flushBatch(batch, consumer);
+    }
+
     @Override
     public Optional<Film> findById(Long id) {
         String sql = "SELECT * FROM films WHERE id = ?";
         List<Film> films = jdbcTemplate.query(sql, filmRowMapper, id);
-        films.forEach(this::loadFilmData);
+        loadFilmsData(films);
         return films.stream().findFirst();
     }
 
     @Override
+    public boolean existsById(Long id) {
+        String sql = "SELECT EXISTS(SELECT 1 FROM films WHERE id = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, id));
+    }
+
+    @Override
+    public List<Film> findAllById(Collection<Long> ids) {
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, Film> filmsById = new HashMap<>();
+        for (int from = 0; from < uniqueIds.size(); from += HYDRATION_CHUNK_SIZE) {
+            List<Long> chunk = uniqueIds.subList(from, Math.min(from + HYDRATION_CHUNK_SIZE, uniqueIds.size()));
+            String sql = "SELECT * FROM films WHERE id IN (" + placeholders(chunk.size()) + ")";
+            jdbcTemplate.query(sql, filmRowMapper, chunk.toArray())
+                    .forEach(film -> filmsById.put(film.getId(), film));
+        }
+
+        // Сохраняем порядок запрошенных id, отсутствующие фильмы пропускаем
+        List<Film> films = uniqueIds.stream()
+                .map(filmsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        loadFilmsData(films);
+        return films;
+    }
+
+    @Override
+    @Transactional
     public Film create(Film film) {
         String sql = "INSERT INTO films (name, description, release_date, duration, mpa_rating) " +
                 "VALUES (?, ?, ?, ?, ?)";
@@ -103,15 +181,16 @@ public class FilmDbStorage implements FilmStorage {
         }, keyHolder);
 
         film.setId(keyHolder.getKey().longValue());
-        saveGenres(film);
+        insertGenres(film.getId(), genreIds(film));
 
         // Загружаем полные данные (включая жанры)
-        loadFilmData(film);
+        loadFilmsData(List.of(film));
 
         return film;
     }
 
     @Override
+    @Transactional
     public Film update(Film film) {
         String sql = "UPDATE films SET name = ?, description = ?, release_date = ?, " +
                 "duration = ?, mpa_rating = ? WHERE id = ?";
@@ -125,7 +204,8 @@ public class FilmDbStorage implements FilmStorage {
                 // Обновляем DTO
                 film.setMpa(new MpaDto(rating.getId(), rating.getCode(), rating.getDescription()));
             } catch (Exception e) {
-                System.err.println("Error updating MPA for film " + film.getId() + ": " + e.getMessage());
+                log.warn("Не удалось обновить рейтинг MPA: filmId={}, mpaId={}, error={}", film.getId(), film.getMpa().getId(),
+                        e.getMessage());
             }
         }
 
@@ -137,13 +217,10 @@ public class FilmDbStorage implements FilmStorage {
                 mpaCode,
                 film.getId());
 
-        // Обновляем жанры
-        String deleteGenresSql = "DELETE FROM film_genres WHERE film_id = ?";
-        jdbcTemplate.update(deleteGenresSql, film.getId());
-        saveGenres(film);
+        updateGenres(film);
 
         // Загружаем полные данные
-        loadFilmData(film);
+        loadFilmsData(List.of(film));
 
         return film;
     }
@@ -155,83 +232,199 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
+    @Transactional
     public void addLike(Long filmId, Long userId) {
         String sql = "INSERT INTO likes (film_id, user_id) VALUES (?, ?)";
         jdbcTemplate.update(sql, filmId, userId);
+        jdbcTemplate.update("UPDATE films SET like_count = like_count + 1 WHERE id = ?", filmId);
     }
 
     @Override
-    public void removeLike(Long filmId, Long userId) {
+    @Transactional
+    public boolean removeLike(Long filmId, Long userId) {
         String sql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
-        jdbcTemplate.update(sql, filmId, userId);
+        int rows = jdbcTemplate.update(sql, filmId, userId);
+        if (rows > 0) {
+            jdbcTemplate.update("UPDATE films SET like_count = like_count - 1 WHERE id = ?", filmId);
+        }
+        return rows > 0;
     }
 
     @Override
-    public List<Film> getPopularFilms(int count) {
-        String sql = "SELECT f.*, COUNT(l.user_id) as like_count " +
-                "FROM films f " +
-                "LEFT JOIN likes l ON f.id = l.film_id " +
-                "GROUP BY f.id " +
-                "ORDER BY like_count DESC " +
-                "LIMIT ?";
-
-        List<Film> films = jdbcTemplate.query(sql, filmRowMapper, count);
-        films.forEach(this::loadFilmData);
+    public List<Film> getPopularFilms(int count, Long genreId, Integer year) {
+        // Без фильтров читается диапазон индекса idx_films_like_count, агрегации по likes нет.
+        // Жанр отбирается по idx_film_genres_genre, год — диапазоном по idx_films_release_date
+        // (условие на EXTRACT(YEAR ...) индекс бы не использовало)
+        StringBuilder sql = new StringBuilder("SELECT f.* FROM films f");
+        List<Object> params = new ArrayList<>();
+        if (genreId != null) {
+            sql.append(" JOIN film_genres fg ON fg.film_id = f.id AND fg.genre_id = ?");
+            params.add(genreId);
+        }
+        if (year != null) {
+            sql.append(" WHERE f.release_date >= ? AND f.release_date < ?");
+            params.add(Date.valueOf(LocalDate.of(year, 1, 1)));
+            params.add(Date.valueOf(LocalDate.of(year + 1, 1, 1)));
+        }
+        sql.append(" ORDER BY f.like_count DESC, f.id LIMIT ?");
+        params.add(count);
+
+        List<Film> films = jdbcTemplate.query(sql.toString(), filmRowMapper, params.toArray());
+        loadFilmsData(films);
         return films;
     }
 
-    private void saveGenres(Film film) {
-        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
-            String sql = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
+    @Override
+    public Map<Long, Integer> getLikeCounts() {
+        Map<Long, Integer> likeCounts = new HashMap<>();
+        jdbcTemplate.query("SELECT id, like_count FROM films", rs -> {
+            likeCounts.put(rs.getLong("id"), rs.getInt("like_count"));
+        });
+        return likeCounts;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamLikes(BiConsumer<Long, Long> consumer) {
+        String sql = "SELECT film_id, user_id FROM likes";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumer.accept(rs.getLong("film_id"), rs.getLong("user_id"));
+        });
+    }
+
+    /**
+     * Возвращает id фильмов, у которых films.like_count расходится с реальным числом строк в likes.
+     */
+    public List<Long> findLikeCountMismatches() {
+        String sql = """
+                SELECT f.id
+                FROM films f
+                LEFT JOIN likes l ON f.id = l.film_id
+                GROUP BY f.id, f.like_count
+                HAVING f.like_count <> COUNT(l.user_id)
+                ORDER BY f.id
+                """;
+        return jdbcTemplate.queryForList(sql, Long.class);
+    }
 
-            // Убираем дубликаты, сохраняя порядок первого вхождения
-            List<Long> uniqueGenreIds = film.getGenres().stream()
-                    .map(GenreDto::getId)
-                    .distinct()
-                    .collect(Collectors.toList());
+    /**
+     * Пересчитывает films.like_count по таблице likes. Возвращает число исправленных фильмов.
+     */
+    @Transactional
+    public int rebuildLikeCounts() {
+        String sql = """
+                UPDATE films f
+                SET like_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id)
+                WHERE like_count <> (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id)
+                """;
+        return jdbcTemplate.update(sql);
+    }
 
-            for (Long genreId : uniqueGenreIds) {
-                jdbcTemplate.update(sql, film.getId(), genreId);
-            }
+    // Жанры фильма без дубликатов, в порядке первого вхождения
+    private static Set<Long> genreIds(Film film) {
+        if (film.getGenres() == null) {
+            return Collections.emptySet();
         }
+        return film.getGenres().stream()
+                .map(GenreDto::getId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
-    private void loadFilmData(Film film) {
-        // Загружаем жанры
-        String genresSql = "SELECT genre_id FROM film_genres WHERE film_id = ? ORDER BY genre_id";
-        List<Long> genreIds = jdbcTemplate.queryForList(genresSql, Long.class, film.getId());
-
-        List<GenreDto> genres = genreIds.stream()
-                .map(genreId -> {
-                    try {
-                        Genre genre = Genre.fromId(genreId);
-                        return new GenreDto(genre.getId(), genre.getName());
-                    } catch (Exception e) {
-                        System.err.println("Error loading genre " + genreId + " for film " + film.getId());
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
+    /**
+     * Приводит жанры фильма к переданным, трогая только изменившиеся строки film_genres:
+     * если жанры не менялись, выполняется один SELECT и ни одной записи.
+     */
+    private void updateGenres(Film film) {
+        Set<Long> newGenreIds = genreIds(film);
+        Set<Long> storedGenreIds = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT genre_id FROM film_genres WHERE film_id = ?", Long.class, film.getId()));
+
+        List<Long> removed = storedGenreIds.stream()
+                .filter(genreId -> !newGenreIds.contains(genreId))
+                .collect(Collectors.toList());
+        List<Long> added = newGenreIds.stream()
+                .filter(genreId -> !storedGenreIds.contains(genreId))
                 .collect(Collectors.toList());
-        film.setGenres(genres);
 
-        // Загружаем MPA если она не была загружена
-        if (film.getMpa() == null) {
-            String mpaSql = "SELECT mpa_rating FROM films WHERE id = ?";
-            try {
-                String mpaCode = jdbcTemplate.queryForObject(mpaSql, String.class, film.getId());
-                if (mpaCode != null && !mpaCode.isEmpty()) {
-                    RatingMPA rating = RatingMPA.fromCode(mpaCode);
-                    film.setMpa(new MpaDto(rating.getId(), rating.getCode(), rating.getDescription()));
+        batchGenres("DELETE FROM film_genres WHERE film_id = ? AND genre_id = ?", film.getId(), removed);
+        insertGenres(film.getId(), added);
+    }
+
+    private void insertGenres(Long filmId, Collection<Long> genreIds) {
+        batchGenres("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", filmId, genreIds);
+    }
+
+    // Все строки отправляются одним JDBC-батчем
+    private void batchGenres(String sql, Long filmId, Collection<Long> genreIds) {
+        if (genreIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = genreIds.stream()
+                .map(genreId -> new Object[]{filmId, genreId})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    // Жанры и лайки догружаются на всю пачку, после чего фильмы отдаются потребителю и забываются
+    private void flushBatch(List<Film> batch, Consumer<Film> consumer) {
+        loadFilmsData(batch);
+        batch.forEach(consumer);
+        batch.clear();
+    }
+
+    /**
+     * Догружает жанры и лайки сразу для всей пачки фильмов: по одному запросу
+     * к film_genres и likes на каждые {@value #HYDRATION_CHUNK_SIZE} id вместо
+     * нескольких запросов на каждый фильм. MPA уже заполнен в filmRowMapper.
+     */
+    private void loadFilmsData(List<Film> films) {
+        if (films.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Film> filmsById = new HashMap<>();
+        Map<Long, LongHashSet> likesByFilm = new HashMap<>();
+        for (Film film : films) {
+            LongHashSet likes = new LongHashSet();
+            film.setGenres(new ArrayList<>());
+            film.setLikes(likes);
+            filmsById.put(film.getId(), film);
+            likesByFilm.put(film.getId(), likes);
+        }
+
+        List<Long> ids = new ArrayList<>(filmsById.keySet());
+        for (int from = 0; from < ids.size(); from += HYDRATION_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + HYDRATION_CHUNK_SIZE, ids.size()));
+            String placeholders = placeholders(chunk.size());
+            Object[] args = chunk.toArray();
+
+            // Загружаем жанры
+            String genresSql = "SELECT film_id, genre_id FROM film_genres WHERE film_id IN (" + placeholders + ") " +
+                    "ORDER BY film_id, genre_id";
+            jdbcTemplate.query(genresSql, rs -> {
+                long filmId = rs.getLong("film_id");
+                long genreId = rs.getLong("genre_id");
+                try {
+                    Genre genre = Genre.fromId(genreId);
+                    filmsById.get(filmId).getGenres().add(new GenreDto(genre.getId(), genre.getName()));
+                } catch (Exception e) {
+                    log.warn("Не удалось загрузить жанр: filmId={}, genreId={}", filmId, genreId);
                 }
-            } catch (Exception e) {
-                System.err.println("Error loading MPA for film " + film.getId() + ": " + e.getMessage());
-            }
+            }, args);
+
+            // Загружаем лайки
+            String likesSql = "SELECT film_id, user_id FROM likes WHERE film_id IN (" + placeholders + ")";
+            jdbcTemplate.query(likesSql, rs -> {
+                likesByFilm.get(rs.getLong("film_id")).add(rs.getLong("user_id"));
+            }, args);
         }
+    }
 
-        // Загружаем лайки
-        String likesSql = "SELECT user_id FROM likes WHERE film_id = ?";
-        List<Long> likes = jdbcTemplate.queryForList(likesSql, Long.class, film.getId());
-        film.setLikes(new HashSet<>(likes));
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
     }
-}
\ No newline at end of file
+}
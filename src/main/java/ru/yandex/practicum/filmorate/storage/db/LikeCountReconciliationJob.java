@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.storage.db;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.StorageBulkChangeEvent;
+
+import java.util.List;
+
+/**
+ * Периодически сверяет films.like_count с таблицей likes и пересчитывает счётчики при расхождении.
+ * После исправления публикует StorageBulkChangeEvent("likes"), чтобы рейтинг популярных фильмов
+ * и кэш фильмов перестали отдавать данные, посчитанные по неверным счётчикам.
+ */
+@Slf4j
+@Component
+public class LikeCountReconciliationJob {
+
+    private final FilmDbStorage filmDbStorage;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public LikeCountReconciliationJob(FilmDbStorage filmDbStorage, ApplicationEventPublisher eventPublisher) {
+        this.filmDbStorage = filmDbStorage;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Scheduled(cron = "${filmorate.like-count.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        List<Long> mismatches = filmDbStorage.findLikeCountMismatches();
+        if (mismatches.isEmpty()) {
+            log.debug("Счётчики лайков согласованы с таблицей likes");
+            return;
+        }
+        log.warn("Счётчики лайков расходятся с таблицей likes у {} фильмов, например {}",
+                mismatches.size(), mismatches.subList(0, Math.min(10, mismatches.size())));
+        int fixed = filmDbStorage.rebuildLikeCounts();
+        log.info("Пересчитаны счётчики лайков у {} фильмов", fixed);
+        if (fixed > 0) {
+            eventPublisher.publishEvent(new StorageBulkChangeEvent("likes"));
+        }
+    }
+}
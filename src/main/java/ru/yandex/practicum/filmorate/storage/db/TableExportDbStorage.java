@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.storage.db;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+
+/**
+ * Курсорное чтение таблиц целиком для выгрузок: строки не собираются в список,
+ * а сразу отдаются обработчику, поэтому память не зависит от размера таблицы.
+ */
+@Repository
+public class TableExportDbStorage {
+    private static final int EXPORT_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public TableExportDbStorage(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public void export(ExportTable table, ExportRowHandler handler) {
+        ResultSetExtractor<Void> extractor = rs -> {
+            handler.start(rs.getMetaData());
+            while (rs.next()) {
+                handler.row(rs);
+            }
+            return null;
+        };
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(table.getSql());
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            return ps;
+        }, extractor);
+    }
+}
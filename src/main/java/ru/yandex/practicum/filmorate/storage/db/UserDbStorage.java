@@ -1,6 +1,8 @@
 package ru.yandex.practicum.filmorate.storage.db;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -15,13 +17,35 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Transactional
 @Repository("userDbStorage")
+@Qualifier("userStorage")
 public class UserDbStorage implements UserStorage {
 
+    // Сколько строк драйвер забирает за раз при потоковом чтении
+    private static final int STREAM_FETCH_SIZE = 500;
+    // Порция строк для findAll: все пользователи читаются в память, поэтому порция крупнее
+    private static final int LIST_FETCH_SIZE = 1000;
+    // Порция строк для списка друзей: у большинства пользователей друзей меньше, список приходит за раз
+    private static final int FRIENDS_FETCH_SIZE = 100;
+    // Максимум id в одном IN (...) при чтении по списку
+    private static final int ID_CHUNK_SIZE = 1000;
+
     private final JdbcTemplate jdbcTemplate;
 
     @Autowired
@@ -37,7 +61,9 @@ public class UserDbStorage implements UserStorage {
             user.setEmail(rs.getString("email"));
             user.setLogin(rs.getString("login"));
             user.setName(rs.getString("name"));
-            user.setBirthday(rs.getDate("birthday").toLocalDate());
+            // День рождения необязателен (например, у пользователей из массового импорта)
+            Date birthday = rs.getDate("birthday");
+            user.setBirthday(birthday == null ? null : birthday.toLocalDate());
             return user;
         }
     };
@@ -45,7 +71,26 @@ public class UserDbStorage implements UserStorage {
     @Override
     public List<User> findAll() {
         String sql = "SELECT * FROM users ORDER BY id";
-        return jdbcTemplate.query(sql, userRowMapper);
+        return jdbcTemplate.query(sql, new FetchSizeArgumentSetter(LIST_FETCH_SIZE), userRowMapper);
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        String sql = "SELECT * FROM users WHERE id > ? ORDER BY id LIMIT ?";
+        return jdbcTemplate.query(sql, userRowMapper, afterId, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<User> consumer) {
+        String sql = "SELECT * FROM users ORDER BY id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumer.accept(userRowMapper.mapRow(rs, rs.getRow()));
+        });
     }
 
     @Override
@@ -55,6 +100,31 @@ public class UserDbStorage implements UserStorage {
         return users.stream().findFirst();
     }
 
+    @Override
+    public boolean existsById(Long id) {
+        String sql = "SELECT EXISTS(SELECT 1 FROM users WHERE id = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, id));
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, User> usersById = new HashMap<>();
+        for (int from = 0; from < uniqueIds.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = uniqueIds.subList(from, Math.min(from + ID_CHUNK_SIZE, uniqueIds.size()));
+            String sql = "SELECT * FROM users WHERE id IN (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            jdbcTemplate.query(sql, userRowMapper, chunk.toArray())
+                    .forEach(user -> usersById.put(user.getId(), user));
+        }
+
+        // Сохраняем порядок запрошенных id, отсутствующих пользователей пропускаем
+        return uniqueIds.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public User create(User user) {
         String sql = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
@@ -66,7 +136,7 @@ public class UserDbStorage implements UserStorage {
             ps.setString(1, user.getEmail());
             ps.setString(2, user.getLogin());
             ps.setString(3, user.getName());
-            ps.setDate(4, Date.valueOf(user.getBirthday()));
+            ps.setDate(4, birthday(user));
             return ps;
         }, keyHolder);
 
@@ -81,18 +151,33 @@ public class UserDbStorage implements UserStorage {
                 user.getEmail(),
                 user.getLogin(),
                 user.getName(),
-                Date.valueOf(user.getBirthday()),
+                birthday(user),
                 user.getId());
         return user;
     }
 
     @Override
-    public void delete(Long id) {
-        // Сначала удаляем связи
-        jdbcTemplate.update("DELETE FROM friends WHERE user_id = ? OR friend_id = ?", id, id);
-        jdbcTemplate.update("DELETE FROM likes WHERE user_id = ?", id);
+    public long[] delete(Long id) {
+        // Сначала удаляем связи, не забывая про счётчики лайков у фильмов
+        // Два DELETE вместо одного с OR: каждое условие идёт по своему индексу, без просмотра всей таблицы
+        jdbcTemplate.update("DELETE FROM friends WHERE user_id = ?", id);
+        jdbcTemplate.update("DELETE FROM friends WHERE friend_id = ?", id);
+        // DELETE сразу отдаёт удалённые строки: счётчики уменьшаются ровно у тех фильмов,
+        // чьи лайки удалены, даже если новый лайк пришёл во время удаления
+        long[] filmIds = jdbcTemplate.queryForList(
+                        "SELECT film_id FROM OLD TABLE (DELETE FROM likes WHERE user_id = ?)", Long.class, id)
+                .stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        if (filmIds.length > 0) {
+            List<Object[]> args = Arrays.stream(filmIds)
+                    .mapToObj(filmId -> new Object[]{filmId})
+                    .collect(Collectors.toList());
+            jdbcTemplate.batchUpdate("UPDATE films SET like_count = like_count - 1 WHERE id = ?", args);
+        }
         // Затем удаляем пользователя
         jdbcTemplate.update("DELETE FROM users WHERE id = ?", id);
+        return filmIds;
     }
 
     @Override
@@ -122,7 +207,7 @@ public class UserDbStorage implements UserStorage {
         String sql = "INSERT INTO friends (user_id, friend_id) VALUES (?, ?)";
         jdbcTemplate.update(sql, userId, friendId);
 
-        System.out.println("Друг добавлен: " + userId + " -> " + friendId);
+        log.debug("Друг добавлен: userId={}, friendId={}", userId, friendId);
     }
 
     @Override
@@ -131,9 +216,9 @@ public class UserDbStorage implements UserStorage {
         int rows = jdbcTemplate.update(sql, userId, friendId);
 
         if (rows == 0) {
-            System.out.println("Друг не найден для удаления: " + userId + " -> " + friendId);
+            log.debug("Друг не найден для удаления: userId={}, friendId={}", userId, friendId);
         } else {
-            System.out.println("Друг удален: " + userId + " -> " + friendId);
+            log.debug("Друг удален: userId={}, friendId={}", userId, friendId);
         }
     }
 
@@ -148,11 +233,25 @@ public class UserDbStorage implements UserStorage {
                 ORDER BY u.id
                 """;
 
-        List<User> friends = jdbcTemplate.query(sql, userRowMapper, userId);
-        System.out.println("Найдено друзей для пользователя " + userId + ": " + friends.size());
+        List<User> friends = jdbcTemplate.query(sql, new FetchSizeArgumentSetter(FRIENDS_FETCH_SIZE, userId),
+                userRowMapper);
+        log.debug("Найдены друзья: userId={}, count={}", userId, friends.size());
         return friends;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamFriendships(BiConsumer<Long, Long> consumer) {
+        String sql = "SELECT user_id, friend_id FROM friends";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumer.accept(rs.getLong("user_id"), rs.getLong("friend_id"));
+        });
+    }
+
     @Override
     public List<User> getCommonFriends(Long userId, Long otherId) {
         // Общие друзья - те, кого оба пользователя добавили в друзья
@@ -171,13 +270,19 @@ public class UserDbStorage implements UserStorage {
     @Override
     public void confirmFriend(Long userId, Long friendId) {
         // Для односторонней системы подтверждение не требуется
-        System.out.println("confirmFriend не используется в односторонней системе друзей");
+        log.debug("confirmFriend не используется в односторонней системе друзей: userId={}, friendId={}",
+                userId, friendId);
     }
 
     @Override
     public List<User> getFriendRequests(Long userId) {
         // Для односторонней системы запросы не используются
-        System.out.println("getFriendRequests не используется в односторонней системе друзей");
+        log.debug("getFriendRequests не используется в односторонней системе друзей: userId={}", userId);
         return List.of();
     }
-}
\ No newline at end of file
+
+    // День рождения необязателен: без него в базу пишется NULL
+    private static Date birthday(User user) {
+        return user.getBirthday() == null ? null : Date.valueOf(user.getBirthday());
+    }
+}
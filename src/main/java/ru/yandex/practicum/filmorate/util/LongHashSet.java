@@ -0,0 +1,245 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.LongConsumer;
+
+/**
+ * Множество id на примитивном массиве long с открытой адресацией и линейным пробированием.
+ * Хранит элемент в 8 байтах таблицы вместо упакованного Long и узла HashMap (около 48 байт у HashSet).
+ * Реализует {@code Set<Long>}, но для горячих путей есть методы без упаковки: add(long), contains(long), remove(long).
+ * Не потокобезопасно. Итератор не поддерживает remove.
+ */
+public class LongHashSet extends AbstractSet<Long> {
+    private static final long[] EMPTY_TABLE = new long[0];
+    private static final int MIN_CAPACITY = 8;
+    private static final double LOAD_FACTOR = 0.6;
+    // Пустая ячейка таблицы; сам ноль хранится отдельным флагом
+    private static final long FREE = 0L;
+
+    private long[] table;
+    private int mask;
+    private int resizeThreshold;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        table = EMPTY_TABLE;
+    }
+
+    public LongHashSet(int expectedSize) {
+        this();
+        if (expectedSize > 0) {
+            allocate(capacityFor(expectedSize));
+        }
+    }
+
+    public boolean add(long value) {
+        if (value == FREE) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        if (table.length == 0) {
+            allocate(MIN_CAPACITY);
+        }
+        int slot = slotOf(value);
+        while (table[slot] != FREE) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        if (++size > resizeThreshold) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == FREE) {
+            return containsZero;
+        }
+        if (size == 0) {
+            return false;
+        }
+        int slot = slotOf(value);
+        while (table[slot] != FREE) {
+            if (table[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean remove(long value) {
+        if (value == FREE) {
+            boolean removed = containsZero;
+            containsZero = false;
+            return removed;
+        }
+        if (size == 0) {
+            return false;
+        }
+        int slot = slotOf(value);
+        while (table[slot] != value) {
+            if (table[slot] == FREE) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = FREE;
+        size--;
+        shiftBack(slot);
+        return true;
+    }
+
+    /**
+     * Возвращает элементы в порядке возрастания.
+     */
+    public long[] toSortedArray() {
+        long[] result = new long[size()];
+        int index = 0;
+        if (containsZero) {
+            result[index++] = 0;
+        }
+        for (long value : table) {
+            if (value != FREE) {
+                result[index++] = value;
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Обход элементов без упаковки в Long.
+     */
+    public void forEachLong(LongConsumer action) {
+        if (containsZero) {
+            action.accept(0);
+        }
+        for (long value : table) {
+            if (value != FREE) {
+                action.accept(value);
+            }
+        }
+    }
+
+    @Override
+    public boolean add(Long value) {
+        return add(value.longValue());
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Long value && contains(value.longValue());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Long value && remove(value.longValue());
+    }
+
+    @Override
+    public int size() {
+        return size + (containsZero ? 1 : 0);
+    }
+
+    @Override
+    public void clear() {
+        table = EMPTY_TABLE;
+        mask = 0;
+        resizeThreshold = 0;
+        size = 0;
+        containsZero = false;
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return new Iterator<>() {
+            private boolean zeroPending = containsZero;
+            private int slot = nextOccupied(0);
+
+            @Override
+            public boolean hasNext() {
+                return zeroPending || slot < table.length;
+            }
+
+            @Override
+            public Long next() {
+                if (zeroPending) {
+                    zeroPending = false;
+                    return 0L;
+                }
+                if (slot >= table.length) {
+                    throw new NoSuchElementException();
+                }
+                long value = table[slot];
+                slot = nextOccupied(slot + 1);
+                return value;
+            }
+        };
+    }
+
+    private int nextOccupied(int from) {
+        int slot = from;
+        while (slot < table.length && table[slot] == FREE) {
+            slot++;
+        }
+        return slot;
+    }
+
+    // Удаление без «надгробий»: сдвигаем назад элементы, чья цепочка пробирования проходила через освободившуюся ячейку
+    private void shiftBack(int freed) {
+        int hole = freed;
+        int slot = (hole + 1) & mask;
+        while (table[slot] != FREE) {
+            long value = table[slot];
+            int ideal = slotOf(value);
+            if (((slot - ideal) & mask) >= ((slot - hole) & mask)) {
+                table[hole] = value;
+                table[slot] = FREE;
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        allocate(capacity);
+        for (long value : old) {
+            if (value != FREE) {
+                int slot = slotOf(value);
+                while (table[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slotOf(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
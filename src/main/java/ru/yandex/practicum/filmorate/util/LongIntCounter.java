@@ -0,0 +1,165 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.PriorityQueue;
+
+/**
+ * Счётчик по ключам long на примитивных массивах с открытой адресацией — для подсчёта
+ * «сколько раз встретился id» без упаковки ключей и значений. Удаление не поддерживается.
+ * Не потокобезопасно.
+ */
+public class LongIntCounter {
+    private static final int MIN_CAPACITY = 16;
+    private static final double LOAD_FACTOR = 0.6;
+    // Пустая ячейка таблицы; счётчик ключа 0 хранится отдельно
+    private static final long FREE = 0L;
+
+    private long[] keys;
+    private int[] counts;
+    private int mask;
+    private int resizeThreshold;
+    private int size;
+    private int zeroCount;
+
+    public LongIntCounter() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongIntCounter(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Увеличивает счётчик ключа на delta и возвращает новое значение.
+     */
+    public int add(long key, int delta) {
+        if (key == FREE) {
+            if (zeroCount == 0) {
+                size++;
+            }
+            zeroCount += delta;
+            return zeroCount;
+        }
+        int slot = slotOf(key);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                counts[slot] += delta;
+                return counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        counts[slot] = delta;
+        if (++size > resizeThreshold) {
+            rehash(keys.length * 2);
+        }
+        return delta;
+    }
+
+    public int increment(long key) {
+        return add(key, 1);
+    }
+
+    public int get(long key) {
+        if (key == FREE) {
+            return zeroCount;
+        }
+        int slot = slotOf(key);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(EntryConsumer action) {
+        if (zeroCount > 0) {
+            action.accept(FREE, zeroCount);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                action.accept(keys[slot], counts[slot]);
+            }
+        }
+    }
+
+    /**
+     * До limit ключей с наибольшими счётчиками; при равенстве выше ключ с меньшим значением.
+     * Отбор через кучу размера limit — O(n log limit) без сортировки всех ключей.
+     */
+    public long[] topKeys(int limit) {
+        if (limit <= 0) {
+            return new long[0];
+        }
+        // В вершине кучи — худший из отобранных
+        PriorityQueue<long[]> heap = new PriorityQueue<>(limit + 1, (a, b) -> {
+            int byCount = Long.compare(a[1], b[1]);
+            return byCount != 0 ? byCount : Long.compare(b[0], a[0]);
+        });
+        if (zeroCount > 0) {
+            offer(heap, limit, FREE, zeroCount);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                offer(heap, limit, keys[slot], counts[slot]);
+            }
+        }
+        long[] result = new long[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = heap.poll()[0];
+        }
+        return result;
+    }
+
+    private static void offer(PriorityQueue<long[]> heap, int limit, long key, int count) {
+        long[] worst = heap.peek();
+        if (heap.size() < limit) {
+            heap.add(new long[]{key, count});
+        } else if (count > worst[1] || (count == worst[1] && key < worst[0])) {
+            heap.poll();
+            heap.add(new long[]{key, count});
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int count);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slotOf(oldKeys[i]);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slotOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
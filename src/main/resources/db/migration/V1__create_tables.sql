@@ -0,0 +1,60 @@
+-- Исходная схема, та же, что создавал schema.sql до перехода на миграции. IF NOT EXISTS — чтобы такую базу
+-- можно было принять через baseline без пересоздания таблиц. Всё, что добавлено позже, — в следующих миграциях
+
+-- 1. Таблица рейтингов MPA
+CREATE TABLE IF NOT EXISTS mpa_ratings (
+    id BIGINT PRIMARY KEY,
+    code VARCHAR(10) NOT NULL UNIQUE,
+    description VARCHAR(255)
+);
+
+-- 2. Таблица фильмов (используем mpa_rating как VARCHAR)
+CREATE TABLE IF NOT EXISTS films (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(200),
+    release_date DATE,
+    duration INTEGER,
+    mpa_rating VARCHAR(10),
+    FOREIGN KEY (mpa_rating) REFERENCES mpa_ratings(code) ON DELETE SET NULL
+);
+
+-- 3. Таблица пользователей
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    login VARCHAR(255) NOT NULL UNIQUE,
+    name VARCHAR(255),
+    birthday DATE
+);
+
+-- 4. Таблица жанров
+CREATE TABLE IF NOT EXISTS genres (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(50)
+);
+
+-- 5. Связующие таблицы
+CREATE TABLE IF NOT EXISTS film_genres (
+    film_id BIGINT NOT NULL,
+    genre_id BIGINT NOT NULL,
+    PRIMARY KEY (film_id, genre_id),
+    FOREIGN KEY (film_id) REFERENCES films(id) ON DELETE CASCADE,
+    FOREIGN KEY (genre_id) REFERENCES genres(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS likes (
+    film_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (film_id, user_id),
+    FOREIGN KEY (film_id) REFERENCES films(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS friends (
+    user_id BIGINT NOT NULL,
+    friend_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, friend_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (friend_id) REFERENCES users(id) ON DELETE CASCADE
+);
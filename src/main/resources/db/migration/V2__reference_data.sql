@@ -0,0 +1,15 @@
+-- Справочники MPA и жанров. MERGE по ключу не дублирует строки, уже записанные в базу
+MERGE INTO mpa_ratings (id, code, description) KEY (id) VALUES
+(1, 'G', 'Нет возрастных ограничений'),
+(2, 'PG', 'Детям рекомендуется смотреть с родителями'),
+(3, 'PG-13', 'Детям до 13 лет просмотр не желателен'),
+(4, 'R', 'Лицам до 17 лет просмотр только в присутствии взрослого'),
+(5, 'NC-17', 'Лицам до 18 лет просмотр запрещён');
+
+MERGE INTO genres (id, name) KEY (id) VALUES
+(1, 'Комедия'),
+(2, 'Драма'),
+(3, 'Мультфильм'),
+(4, 'Триллер'),
+(5, 'Документальный'),
+(6, 'Боевик');
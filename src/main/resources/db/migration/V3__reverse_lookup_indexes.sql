@@ -0,0 +1,8 @@
+-- Популярные фильмы за год отбираются диапазоном дат
+CREATE INDEX IF NOT EXISTS idx_films_release_date ON films (release_date);
+
+-- Первичные ключи связующих таблиц ведут от фильма/пользователя-владельца;
+-- для обратных выборок (фильмы жанра, лайки пользователя, кто добавил пользователя в друзья) нужны свои индексы
+CREATE INDEX IF NOT EXISTS idx_film_genres_genre ON film_genres (genre_id, film_id);
+CREATE INDEX IF NOT EXISTS idx_likes_user ON likes (user_id, film_id);
+CREATE INDEX IF NOT EXISTS idx_friends_friend ON friends (friend_id, user_id);
@@ -0,0 +1,8 @@
+-- Денормализованное число лайков, поддерживается вместе с таблицей likes.
+-- В базе, созданной до миграций, столбца нет: добавляем его и заполняем по уже поставленным лайкам
+ALTER TABLE films ADD COLUMN IF NOT EXISTS like_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE films f SET like_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id);
+
+-- Топ популярных фильмов читается по индексу без агрегации likes
+CREATE INDEX IF NOT EXISTS idx_films_like_count ON films (like_count DESC, id);
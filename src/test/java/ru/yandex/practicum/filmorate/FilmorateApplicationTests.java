@@ -24,7 +24,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 
 @JdbcTest
-@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @Import({FilmDbStorage.class, UserDbStorage.class}) // ЯВНО импортируем классы для тестов
 class FilmorateApplicationTests {
@@ -174,6 +174,35 @@ class FilmorateApplicationTests {
         assertThat(popular.get(1).getName()).isEqualTo("Film 1"); // Без лайка
     }
 
+    @Test
+    void testLikeCountFollowsLikesAndCanBeRebuilt() {
+        Long filmId = createFilm("Film").getId();
+        Long userId1 = createUser("first@mail.ru").getId();
+        Long userId2 = createUser("second@mail.ru").getId();
+
+        filmStorage.addLike(filmId, userId1);
+        filmStorage.addLike(filmId, userId2);
+        filmStorage.removeLike(filmId, userId1);
+        filmStorage.removeLike(filmId, userId1);
+
+        assertThat(likeCount(filmId)).isEqualTo(1);
+        assertThat(filmStorage.findLikeCountMismatches()).isEmpty();
+
+        userStorage.delete(userId2);
+        assertThat(likeCount(filmId)).isZero();
+
+        jdbcTemplate.update("UPDATE films SET like_count = 42 WHERE id = ?", filmId);
+        assertThat(filmStorage.findLikeCountMismatches()).containsExactly(filmId);
+
+        assertThat(filmStorage.rebuildLikeCounts()).isEqualTo(1);
+        assertThat(likeCount(filmId)).isZero();
+        assertThat(filmStorage.findLikeCountMismatches()).isEmpty();
+    }
+
+    private Integer likeCount(Long filmId) {
+        return jdbcTemplate.queryForObject("SELECT like_count FROM films WHERE id = ?", Integer.class, filmId);
+    }
+
     private Film createFilm(String name) {
         Film film = new Film();
         film.setName(name);
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionPoolWarmerTest {
+    private HikariDataSource pool;
+
+    @BeforeEach
+    void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:pool-warmer;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(4);
+        config.setMinimumIdle(3);
+        pool = new HikariDataSource(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void holdsMinimumIdleConnectionsAtOnceAndReturnsThem() {
+        // Фоновое заполнение пула открывает соединения, но не выдаёт их: три выданных
+        // одновременно соединения могут появиться только от самого прогрева
+        PeakActiveDataSource dataSource = new PeakActiveDataSource(new ConnectionLimitingDataSource(pool, 4, 1_000));
+
+        new ConnectionPoolWarmer(dataSource).warmUp();
+
+        assertThat(dataSource.getPeakActive()).isEqualTo(3);
+        assertThat(pool.getHikariPoolMXBean().getActiveConnections()).isZero();
+    }
+
+    @Test
+    void opensSingleConnectionWithoutHikari() {
+        PeakActiveDataSource dataSource = new PeakActiveDataSource(new DelegatingDataSource(pool) {
+            @Override
+            public boolean isWrapperFor(Class<?> iface) {
+                return false;
+            }
+        });
+
+        new ConnectionPoolWarmer(dataSource).warmUp();
+
+        assertThat(dataSource.getPeakActive()).isEqualTo(1);
+        assertThat(pool.getHikariPoolMXBean().getActiveConnections()).isZero();
+    }
+
+    /**
+     * Запоминает, сколько соединений пула было выдано одновременно.
+     */
+    private class PeakActiveDataSource extends DelegatingDataSource {
+        private int peakActive;
+
+        PeakActiveDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            peakActive = Math.max(peakActive, pool.getHikariPoolMXBean().getActiveConnections());
+            return connection;
+        }
+
+        int getPeakActive() {
+            return peakActive;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FilmSearchIndexTest {
+    private static final Set<SearchField> ALL_FIELDS = EnumSet.allOf(SearchField.class);
+
+    @Mock
+    private FilmStorage filmStorage;
+
+    @Mock
+    private PopularityLeaderboard leaderboard;
+
+    private FilmSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new FilmSearchIndex(filmStorage, leaderboard, true, 0.6, new SimpleMeterRegistry());
+        doAnswer(invocation -> {
+            Consumer<Film> consumer = invocation.getArgument(0);
+            consumer.accept(film(1L, "Ёлки", "Новогодняя комедия"));
+            consumer.accept(film(2L, "Иван Васильевич меняет профессию", "Комедия о машине времени"));
+            consumer.accept(film(3L, "Back to the Future", "Time machine comedy"));
+            consumer.accept(film(4L, "Машина времени", null));
+            return null;
+        }).when(filmStorage).streamAll(any());
+        lenient().when(leaderboard.likeCount(anyLong())).thenReturn(0);
+        searchIndex.warmUp();
+    }
+
+    @Test
+    void findsCyrillicWordsIgnoringCaseAndYo() {
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(searchIndex.search("ЕЛКИ", ALL_FIELDS, 10)).containsExactly(1L);
+        assertThat(searchIndex.search("профессия", ALL_FIELDS, 10)).containsExactly(2L);
+        assertThat(searchIndex.search("future", ALL_FIELDS, 10)).containsExactly(3L);
+    }
+
+    @Test
+    void titleMatchesRankAboveDescriptionMatches() {
+        assertThat(searchIndex.search("машина времени", ALL_FIELDS, 10)).containsExactly(4L, 2L);
+        assertThat(searchIndex.search("машина времени", EnumSet.of(SearchField.DESCRIPTION), 10))
+                .containsExactly(2L);
+    }
+
+    @Test
+    void popularityBreaksRelevanceTies() {
+        when(leaderboard.likeCount(2L)).thenReturn(5);
+
+        assertThat(searchIndex.search("комедия", EnumSet.of(SearchField.DESCRIPTION), 10))
+                .containsExactly(2L, 1L);
+        assertThat(searchIndex.search("комедия", EnumSet.of(SearchField.DESCRIPTION), 1))
+                .containsExactly(2L);
+    }
+
+    @Test
+    void indexFollowsUpdatesAndDeletes() {
+        searchIndex.filmUpdated(film(1L, "Ирония судьбы", "Новогодняя комедия"));
+        searchIndex.filmDeleted(4L);
+        searchIndex.filmCreated(film(5L, "Ёлки 2", null));
+
+        assertThat(searchIndex.search("ирония", ALL_FIELDS, 10)).containsExactly(1L);
+        assertThat(searchIndex.search("елки", ALL_FIELDS, 10)).containsExactly(5L);
+        assertThat(searchIndex.search("машина времени", EnumSet.of(SearchField.TITLE), 10)).isEmpty();
+    }
+
+    @Test
+    void trigramsArePaddedPerWord() {
+        assertThat(FilmSearchIndex.trigrams("Ёж")).hasSize(3);
+        assertThat(FilmSearchIndex.trigrams("ёж, ЕЖ!")).hasSize(3);
+        assertThat(FilmSearchIndex.trigrams(" , ")).isEmpty();
+    }
+
+    private static Film film(Long id, String name, String description) {
+        Film film = new Film();
+        film.setId(id);
+        film.setName(name);
+        film.setDescription(description);
+        return film;
+    }
+}
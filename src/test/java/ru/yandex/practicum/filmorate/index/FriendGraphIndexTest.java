@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class FriendGraphIndexTest {
+
+    @Mock
+    private UserStorage userStorage;
+
+    private FriendGraphIndex friendGraph;
+
+    @BeforeEach
+    void setUp() {
+        friendGraph = new FriendGraphIndex(userStorage, true, 1000, new SimpleMeterRegistry());
+        doAnswer(invocation -> {
+            BiConsumer<Long, Long> consumer = invocation.getArgument(0);
+            consumer.accept(1L, 5L);
+            consumer.accept(1L, 3L);
+            consumer.accept(1L, 4L);
+            consumer.accept(2L, 4L);
+            consumer.accept(2L, 3L);
+            consumer.accept(2L, 6L);
+            return null;
+        }).when(userStorage).streamFriendships(any());
+        friendGraph.warmUp();
+    }
+
+    @Test
+    void friendIdsAreSortedAndCommonFriendsAreIntersected() {
+        assertThat(friendGraph.isReady()).isTrue();
+        assertThat(friendGraph.friendIds(1L)).containsExactly(3L, 4L, 5L);
+        assertThat(friendGraph.commonFriendIds(1L, 2L)).containsExactly(3L, 4L);
+        assertThat(friendGraph.commonFriendIds(1L, 7L)).isEmpty();
+    }
+
+    @Test
+    void changesAreAppliedIncrementally() {
+        friendGraph.addFriend(1L, 6L, () -> { });
+        friendGraph.addFriend(7L, 1L, () -> { });
+        friendGraph.removeFriend(2L, 3L, () -> { });
+
+        assertThat(friendGraph.friendIds(1L)).containsExactly(3L, 4L, 5L, 6L);
+        assertThat(friendGraph.friendIds(7L)).containsExactly(1L);
+        assertThat(friendGraph.commonFriendIds(1L, 2L)).containsExactly(4L, 6L);
+    }
+
+    @Test
+    void deletedUserDisappearsFromAllFriendLists() {
+        friendGraph.userDeleted(4L, () -> { });
+
+        assertThat(friendGraph.friendIds(1L)).containsExactly(3L, 5L);
+        assertThat(friendGraph.friendIds(2L)).containsExactly(3L, 6L);
+    }
+
+    @Test
+    void failedStorageChangeDoesNotTouchGraph() {
+        try {
+            friendGraph.addFriend(1L, 9L, () -> {
+                throw new IllegalStateException("storage failure");
+            });
+        } catch (IllegalStateException ignored) {
+            // ожидаемо
+        }
+
+        assertThat(friendGraph.friendIds(1L)).containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    void suggestionsAreRankedByMutualFriends() {
+        // 1 -> {3, 4, 5}; добавляем друзьям связи второго уровня
+        friendGraph.addFriend(3L, 8L, () -> { });
+        friendGraph.addFriend(4L, 8L, () -> { });
+        friendGraph.addFriend(5L, 8L, () -> { });
+        friendGraph.addFriend(4L, 9L, () -> { });
+        friendGraph.addFriend(5L, 9L, () -> { });
+        friendGraph.addFriend(3L, 7L, () -> { });
+        // Уже друг и сам пользователь в рекомендации не попадают
+        friendGraph.addFriend(3L, 4L, () -> { });
+        friendGraph.addFriend(5L, 1L, () -> { });
+
+        assertThat(friendGraph.suggestFriends(1L, 10)).containsExactly(8L, 9L, 7L);
+        assertThat(friendGraph.suggestFriends(1L, 2)).containsExactly(8L, 9L);
+    }
+
+    @Test
+    void suggestionsStopWhenWorkBudgetIsSpent() {
+        FriendGraphIndex smallBudget = new FriendGraphIndex(userStorage, true, 3, new SimpleMeterRegistry());
+        smallBudget.warmUp();
+        for (long candidate = 100; candidate < 200; candidate++) {
+            smallBudget.addFriend(5L, candidate, () -> { });
+        }
+
+        assertThat(smallBudget.suggestFriends(1L, 10)).hasSizeLessThanOrEqualTo(3);
+    }
+}
@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class LikesMatrixIndexTest {
+
+    @Mock
+    private FilmStorage filmStorage;
+
+    private LikesMatrixIndex likesMatrix;
+
+    @BeforeEach
+    void setUp() {
+        likesMatrix = new LikesMatrixIndex(filmStorage, true, 1000, 20, new SimpleMeterRegistry());
+        doAnswer(invocation -> {
+            BiConsumer<Long, Long> consumer = invocation.getArgument(0);
+            // (filmId, userId): у пользователя 1 два общих фильма с пользователем 2 и один с пользователем 3
+            consumer.accept(10L, 1L);
+            consumer.accept(11L, 1L);
+            consumer.accept(10L, 2L);
+            consumer.accept(11L, 2L);
+            consumer.accept(20L, 2L);
+            consumer.accept(10L, 3L);
+            consumer.accept(30L, 3L);
+            consumer.accept(20L, 3L);
+            return null;
+        }).when(filmStorage).streamLikes(any());
+        likesMatrix.warmUp();
+    }
+
+    @Test
+    void recommendsUnseenFilmsOfMostSimilarUsers() {
+        assertThat(likesMatrix.isReady()).isTrue();
+        // 20: вес 2 (пользователь 2) + 1 (пользователь 3), 30: вес 1
+        assertThat(likesMatrix.recommendFilms(1L, 10)).containsExactly(20L, 30L);
+        assertThat(likesMatrix.recommendFilms(1L, 1)).containsExactly(20L);
+        assertThat(likesMatrix.recommendFilms(4L, 10)).isEmpty();
+    }
+
+    @Test
+    void likesAreAppliedIncrementally() {
+        likesMatrix.likeAdded(20L, 1L, () -> true);
+        likesMatrix.likeRemoved(30L, 3L, () -> true);
+
+        assertThat(likesMatrix.recommendFilms(1L, 10)).isEmpty();
+        assertThat(likesMatrix.recommendFilms(2L, 10)).isEmpty();
+        assertThat(likesMatrix.recommendFilms(3L, 10)).containsExactly(11L);
+    }
+
+    @Test
+    void failedStorageChangeDoesNotTouchMatrix() {
+        assertThat(likesMatrix.likeAdded(20L, 1L, () -> false)).isFalse();
+
+        assertThat(likesMatrix.recommendFilms(1L, 10)).containsExactly(20L, 30L);
+    }
+
+    @Test
+    void deletedFilmsAndUsersAreNotRecommended() {
+        likesMatrix.filmDeleted(20L);
+        assertThat(likesMatrix.recommendFilms(1L, 10)).containsExactly(30L);
+
+        likesMatrix.userDeleted(3L, () -> new long[]{10L, 30L});
+        assertThat(likesMatrix.recommendFilms(1L, 10)).isEmpty();
+    }
+
+    @Test
+    void failedUserDeleteDoesNotTouchMatrix() {
+        try {
+            likesMatrix.userDeleted(3L, () -> {
+                throw new IllegalStateException("storage failure");
+            });
+        } catch (IllegalStateException ignored) {
+            // ожидаемо
+        }
+
+        assertThat(likesMatrix.recommendFilms(1L, 10)).containsExactly(20L, 30L);
+    }
+
+    @Test
+    void overlapCountingStopsWhenWorkBudgetIsSpent() {
+        LikesMatrixIndex smallBudget = new LikesMatrixIndex(filmStorage, true, 3, 20, new SimpleMeterRegistry());
+        smallBudget.warmUp();
+
+        // Фильм 11 (2 лайка) укладывается в бюджет, фильм 10 (3 лайка) — уже нет: остаётся только сосед 2
+        assertThat(smallBudget.recommendFilms(1L, 10)).containsExactly(20L);
+    }
+}
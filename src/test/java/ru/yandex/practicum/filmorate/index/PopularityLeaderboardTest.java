@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PopularityLeaderboardTest {
+
+    @Mock
+    private FilmStorage filmStorage;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PopularityLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        leaderboard = new PopularityLeaderboard(filmStorage, true, meterRegistry);
+        when(filmStorage.getLikeCounts()).thenReturn(Map.of(1L, 5, 2L, 7, 3L, 5, 4L, 0));
+        leaderboard.warmUp();
+    }
+
+    @Test
+    void topFilmIdsAreOrderedByLikesThenById() {
+        assertThat(leaderboard.isReady()).isTrue();
+        assertThat(leaderboard.topFilmIds(3)).containsExactly(2L, 1L, 3L);
+        assertThat(leaderboard.topFilmIds(10)).containsExactly(2L, 1L, 3L, 4L);
+    }
+
+    @Test
+    void likeChangesMoveFilmsIncrementally() {
+        leaderboard.changeLikes(4L, 1, () -> true);
+        leaderboard.changeLikes(4L, 1, () -> true);
+        leaderboard.changeLikes(4L, 1, () -> true);
+        leaderboard.changeLikes(4L, 1, () -> true);
+        leaderboard.changeLikes(4L, 1, () -> true);
+        leaderboard.changeLikes(4L, 1, () -> true);
+        leaderboard.changeLikes(1L, -1, () -> true);
+        // Не применившееся в хранилище изменение не трогает рейтинг
+        leaderboard.changeLikes(3L, -1, () -> false);
+
+        assertThat(leaderboard.topFilmIds(4)).containsExactly(2L, 4L, 3L, 1L);
+    }
+
+    @Test
+    void likesRemovedTakesOneLikeFromEachFilm() {
+        leaderboard.likesRemoved(() -> new long[]{1L, 2L});
+
+        assertThat(leaderboard.likeCount(1L)).isEqualTo(4);
+        assertThat(leaderboard.likeCount(2L)).isEqualTo(6);
+        assertThat(leaderboard.topFilmIds(4)).containsExactly(2L, 3L, 1L, 4L);
+    }
+
+    @Test
+    void createdAndDeletedFilmsAreTracked() {
+        leaderboard.filmCreated(5L);
+        leaderboard.filmDeleted(2L);
+        leaderboard.changeLikes(2L, 1, () -> true);
+
+        assertThat(leaderboard.topFilmIds(10)).containsExactly(1L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void warmUpMetricsAreRegistered() {
+        assertThat(meterRegistry.get("filmorate.leaderboard.size").gauge().value()).isEqualTo(4);
+        assertThat(meterRegistry.get("filmorate.leaderboard.memory").gauge().value())
+                .isEqualTo(4.0 * PopularityLeaderboard.ESTIMATED_BYTES_PER_FILM);
+        assertThat(meterRegistry.find("filmorate.leaderboard.warmup").timeGauge()).isNotNull();
+    }
+}
@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.HttpHeaders;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static ru.yandex.practicum.filmorate.logging.SamplingRequestConditionTest.request;
+
+class BodyLimitStrategyTest {
+    private final BodyLimitStrategy strategy = new BodyLimitStrategy(List.of("GET /films"), 100);
+
+    @Test
+    void listsAreLoggedWithoutBodies() throws IOException {
+        HttpRequest request = request("GET", "/films");
+        HttpResponse response = mock(HttpResponse.class);
+
+        strategy.process(request);
+        strategy.process(request, response);
+
+        verify(request).withoutBody();
+        verify(response).withoutBody();
+        verify(response, never()).withBody();
+    }
+
+    @Test
+    void largeRequestBodyIsNotBuffered() throws IOException {
+        HttpRequest large = request("POST", "/films");
+        when(large.getHeaders()).thenReturn(HttpHeaders.of("Content-Length", "101"));
+        HttpRequest small = request("POST", "/films");
+        when(small.getHeaders()).thenReturn(HttpHeaders.of("Content-Length", "100"));
+
+        strategy.process(large);
+        strategy.process(small);
+
+        verify(large).withoutBody();
+        verify(small).withBody();
+    }
+
+    @Test
+    void otherResponsesKeepBodies() throws IOException {
+        HttpRequest request = request("GET", "/films/1");
+        HttpResponse response = mock(HttpResponse.class);
+
+        strategy.process(request, response);
+
+        verify(response).withBody();
+    }
+}
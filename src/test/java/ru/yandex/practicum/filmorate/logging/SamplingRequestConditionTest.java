@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.HttpHeaders;
+import org.zalando.logbook.HttpRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SamplingRequestConditionTest {
+    private final SamplingRequestCondition condition = new SamplingRequestCondition(
+            List.of("/import/**", "POST /films/batch"),
+            List.of("GET /films=0", "GET /films/**=0.5", "/users/**=1"),
+            1.0);
+
+    @Test
+    void excludesBulkEndpoints() {
+        assertThat(condition.test(request("POST", "/import/films"))).isFalse();
+        assertThat(condition.test(request("POST", "/films/batch"))).isFalse();
+        assertThat(condition.test(request("POST", "/films"))).isTrue();
+    }
+
+    @Test
+    void excludesNdjsonStreams() {
+        HttpRequest stream = request("GET", "/users");
+        when(stream.getHeaders()).thenReturn(HttpHeaders.of("Accept", "application/x-ndjson"));
+
+        assertThat(condition.test(stream)).isFalse();
+    }
+
+    @Test
+    void firstMatchingRuleDefinesRate() {
+        assertThat(condition.rateFor(request("GET", "/films"))).isEqualTo(0.0);
+        assertThat(condition.rateFor(request("GET", "/films/1"))).isEqualTo(0.5);
+        assertThat(condition.rateFor(request("PUT", "/films/1/like/2"))).isEqualTo(1.0);
+        assertThat(condition.rateFor(request("DELETE", "/users/1"))).isEqualTo(1.0);
+
+        assertThat(condition.test(request("GET", "/films"))).isFalse();
+    }
+
+    @Test
+    void rejectsRateOutOfRange() {
+        assertThatThrownBy(() -> new SamplingRequestCondition(List.of(), List.of("/films=2"), 1.0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SamplingRequestCondition(List.of(), List.of("/films"), 1.0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    static HttpRequest request(String method, String path) {
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getMethod()).thenReturn(method);
+        when(request.getPath()).thenReturn(path);
+        when(request.getHeaders()).thenReturn(HttpHeaders.empty());
+        return request;
+    }
+}
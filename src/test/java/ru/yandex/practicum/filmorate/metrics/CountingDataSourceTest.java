@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountingDataSourceTest {
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .build();
+        jdbcTemplate = new JdbcTemplate(new CountingDataSource(database));
+        jdbcTemplate.execute("CREATE TABLE items (id BIGINT PRIMARY KEY)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        JdbcStatementStats.stop();
+        database.shutdown();
+    }
+
+    @Test
+    void countsStatementsAndRowsInsideRequest() {
+        JdbcStatementStats stats = JdbcStatementStats.start();
+
+        jdbcTemplate.batchUpdate("INSERT INTO items (id) VALUES (?)",
+                List.of(new Object[]{1L}, new Object[]{2L}, new Object[]{3L}));
+        jdbcTemplate.update("DELETE FROM items WHERE id = ?", 3L);
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM items ORDER BY id", Long.class);
+
+        assertThat(ids).containsExactly(1L, 2L);
+        assertThat(stats.getStatements()).isEqualTo(3);
+        // 3 вставлено + 1 удалена + 2 прочитаны
+        assertThat(stats.getRows()).isEqualTo(6);
+    }
+
+    @Test
+    void doesNotCountOutsideRequest() {
+        JdbcStatementStats stats = JdbcStatementStats.start();
+        JdbcStatementStats.stop();
+
+        jdbcTemplate.update("INSERT INTO items (id) VALUES (?)", 1L);
+
+        assertThat(stats.getStatements()).isZero();
+        assertThat(JdbcStatementStats.current()).isNull();
+    }
+}
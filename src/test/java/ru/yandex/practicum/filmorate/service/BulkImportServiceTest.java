@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.dto.ImportReport;
+import ru.yandex.practicum.filmorate.dto.ImportRowError;
+import ru.yandex.practicum.filmorate.storage.db.BulkImportDbStorage;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+// Пачки импорта управляют транзакциями сами, поэтому тест не оборачивается в общую транзакцию
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkImportServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BulkImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        clearTables();
+
+        importService = new BulkImportService(
+                new FilmService(null, null, null, null, null),
+                new UserService(null, null, null, null),
+                new BulkImportDbStorage(jdbcTemplate),
+                new TransactionTemplate(transactionManager),
+                event -> { },
+                new ObjectMapper().registerModule(new JavaTimeModule()),
+                2,
+                100);
+    }
+
+    // Тест работает вне транзакции, поэтому импортированные строки иначе остались бы в общей
+    // тестовой базе и сломали бы другие тестовые классы того же контекста
+    @AfterEach
+    void tearDown() {
+        clearTables();
+    }
+
+    private void clearTables() {
+        jdbcTemplate.execute("DELETE FROM likes");
+        jdbcTemplate.execute("DELETE FROM friends");
+        jdbcTemplate.execute("DELETE FROM film_genres");
+        jdbcTemplate.execute("DELETE FROM films");
+        jdbcTemplate.execute("DELETE FROM users");
+    }
+
+    @Test
+    void invalidAndConflictingRowsAreReportedWithoutAbortingImport() {
+        String csv = """
+                email,login,name,birthday
+                one@mail.ru,one,One,1990-01-01
+                broken-email,two,Two,1990-01-01
+                three@mail.ru,one,Duplicate login,1990-01-01
+                four@mail.ru,four,,1991-02-03
+                """;
+
+        ImportReport report = importService.importData(ImportEntity.USERS, ImportFormat.CSV, input(csv));
+
+        assertThat(report.getRowsRead()).isEqualTo(4);
+        assertThat(report.getRowsImported()).isEqualTo(2);
+        assertThat(report.getRowsFailed()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(ImportRowError::getLine).containsExactly(3L, 4L);
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM users WHERE login = 'four'", String.class))
+                .isEqualTo("four");
+    }
+
+    @Test
+    void likesAreImportedInBatchesAndUpdateLikeCount() {
+        importService.importData(ImportEntity.USERS, ImportFormat.NDJSON, input("""
+                {"email":"a@mail.ru","login":"a","birthday":"1990-01-01"}
+                {"email":"b@mail.ru","login":"b","birthday":"1990-01-01"}
+                """));
+        importService.importData(ImportEntity.FILMS, ImportFormat.NDJSON, input("""
+                {"name":"Film","description":"d","releaseDate":"2000-01-01","duration":90,"mpa":{"id":1},"genres":[{"id":1},{"id":2}]}
+                """));
+        long filmId = jdbcTemplate.queryForObject("SELECT id FROM films", Long.class);
+        long userA = jdbcTemplate.queryForObject("SELECT id FROM users WHERE login = 'a'", Long.class);
+        long userB = jdbcTemplate.queryForObject("SELECT id FROM users WHERE login = 'b'", Long.class);
+
+        ImportReport report = importService.importData(ImportEntity.LIKES, ImportFormat.CSV, input(
+                "filmId,userId\n" +
+                filmId + "," + userA + "\n" +
+                filmId + "," + (userB + 100) + "\n" +
+                filmId + "," + userB + "\n"));
+
+        assertThat(report.getRowsImported()).isEqualTo(2);
+        assertThat(report.getRowsFailed()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT like_count FROM films WHERE id = ?", Integer.class, filmId))
+                .isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM film_genres WHERE film_id = ?",
+                Integer.class, filmId)).isEqualTo(2);
+    }
+
+    private static ByteArrayInputStream input(String data) {
+        return new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.storage.db.ExportTable;
+import ru.yandex.practicum.filmorate.storage.db.TableExportDbStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+class ExportServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportService(new TableExportDbStorage(jdbcTemplate), new ObjectMapper());
+        jdbcTemplate.update("INSERT INTO users (email, login, name, birthday) VALUES " +
+                "('a@mail.ru', 'a', 'Anna', '1990-01-02'), ('b@mail.ru', 'b', NULL, NULL)");
+    }
+
+    @Test
+    void ndjsonExportWritesOneObjectPerRow() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(ExportTable.USERS, ExportFormat.NDJSON, out);
+
+        String[] lines = new String(gunzip(out), StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"login\":\"a\"", "\"birthday\":\"1990-01-02\"");
+        assertThat(lines[1]).contains("\"name\":null", "\"birthday\":null");
+    }
+
+    @Test
+    void binaryExportHasHeaderAndAllRows() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(ExportTable.USERS, ExportFormat.BINARY, out);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(gunzip(out)));
+        assertThat(in.readNBytes(4)).isEqualTo(BinaryExportWriter.MAGIC);
+        assertThat(in.readByte()).isEqualTo(BinaryExportWriter.VERSION);
+        int columns = in.readShort();
+        byte[] types = new byte[columns];
+        for (int i = 0; i < columns; i++) {
+            in.readUTF();
+            types[i] = in.readByte();
+        }
+
+        int rows = 0;
+        while (in.readByte() == 1) {
+            rows++;
+            for (byte type : types) {
+                if (in.readByte() == 1) {
+                    continue;
+                }
+                switch (type) {
+                    case BinaryExportWriter.TYPE_LONG -> in.readLong();
+                    case BinaryExportWriter.TYPE_DATE -> in.readInt();
+                    default -> in.readUTF();
+                }
+            }
+        }
+        assertThat(rows).isEqualTo(2);
+        assertThat(in.read()).isEqualTo(-1);
+    }
+
+    private static byte[] gunzip(ByteArrayOutputStream out) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            return in.readAllBytes();
+        }
+    }
+}
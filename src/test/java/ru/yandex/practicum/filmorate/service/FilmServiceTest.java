@@ -8,6 +8,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.yandex.practicum.filmorate.dto.MpaDto;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.LikesMatrixIndex;
+import ru.yandex.practicum.filmorate.index.PopularityLeaderboard;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
@@ -28,6 +31,15 @@ class FilmServiceTest {
     @Mock
     private UserStorage userStorage;
 
+    @Mock
+    private PopularityLeaderboard leaderboard;
+
+    @Mock
+    private LikesMatrixIndex likesMatrix;
+
+    @Mock
+    private FilmSearchIndex searchIndex;
+
     @InjectMocks
     private FilmService filmService;
 
@@ -105,4 +117,20 @@ class FilmServiceTest {
         assertThrows(ValidationException.class, () -> filmService.create(validFilm));
         verify(filmStorage, never()).create(any(Film.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getPopularFilmsWithNonPositiveCountTest() {
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> filmService.getPopularFilms(0, null, null));
+        assertThrows(ValidationException.class, () -> filmService.getPopularFilms(-1, null, null));
+        verify(leaderboard, never()).topFilmIds(anyInt());
+    }
+
+    @Test
+    void getPopularFilmsWithYearOutOfRangeTest() {
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> filmService.getPopularFilms(10, null, 1000));
+        assertThrows(ValidationException.class, () -> filmService.getPopularFilms(10, null, 1_000_000_000));
+        verify(filmStorage, never()).getPopularFilms(anyInt(), any(), any());
+    }
+}
@@ -3,17 +3,24 @@ package ru.yandex.practicum.filmorate.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.index.FriendGraphIndex;
+import ru.yandex.practicum.filmorate.index.LikesMatrixIndex;
+import ru.yandex.practicum.filmorate.index.PopularityLeaderboard;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.time.LocalDate;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,9 +29,21 @@ class UserServiceTest {
     @Mock
     private UserStorage userStorage;
 
+    @Mock
+    private FriendGraphIndex friendGraph;
+
+    @Mock
+    private LikesMatrixIndex likesMatrix;
+
+    @Mock
+    private PopularityLeaderboard leaderboard;
+
     @InjectMocks
     private UserService userService;
 
+    @Captor
+    private ArgumentCaptor<Supplier<long[]>> storageChange;
+
     private User validUser;
 
     @BeforeEach
@@ -126,4 +145,26 @@ class UserServiceTest {
         assertEquals(validUser.getLogin(), result.getName());
         verify(userStorage, times(1)).create(any(User.class));
     }
+
+    @Test
+    void deleteTakesLikesRemovedByStorageOffLeaderboard() {
+        when(userStorage.existsById(1L)).thenReturn(true);
+        when(userStorage.delete(1L)).thenReturn(new long[]{10L, 20L});
+        when(likesMatrix.userDeleted(eq(1L), any())).thenAnswer(invocation ->
+                invocation.<Supplier<long[]>>getArgument(1).get());
+
+        userService.delete(1L);
+
+        // Изменения выполняются вложенно: граф друзей -> рейтинг -> матрица лайков -> хранилище
+        ArgumentCaptor<Runnable> graphChange = ArgumentCaptor.forClass(Runnable.class);
+        verify(friendGraph).userDeleted(eq(1L), graphChange.capture());
+        verify(leaderboard, never()).likesRemoved(any());
+        graphChange.getValue().run();
+
+        verify(leaderboard).likesRemoved(storageChange.capture());
+        verify(userStorage, never()).delete(1L);
+        assertArrayEquals(new long[]{10L, 20L}, storageChange.getValue().get());
+        verify(userStorage).delete(1L);
+        verify(leaderboard, never()).warmUp();
+    }
 }
@@ -0,0 +1,348 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагружает in-memory хранилища смешанными операциями из нескольких потоков
+ * и проверяет инварианты: уникальные id, итоговые лайки и друзья, согласованность снимков.
+ * В части сценариев каждый поток работает со своим диапазоном пользователей, поэтому итог предсказуем.
+ * В остальных потоки делят общих пользователей и дружат их в противоположном порядке — так проверяются
+ * блокировки пар и порядок их захвата: заявка должна остаться симметричной, а взаимная блокировка
+ * потоков — упереться в таймаут.
+ * <p>
+ * В обычной сборке сценарии прогоняются в уменьшенном объёме и укладываются в секунды.
+ * Полный прогон на миллионы операций помечен тегом {@code stress} и запускается
+ * через {@code mvn -Pstress test}.
+ */
+class InMemoryStorageStressTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+    private static final int STRESS_OPERATIONS_PER_THREAD = 250_000;
+    // Операции с общими пользователями дешёвые, а гонке нужно много пересечений, чтобы проявиться
+    private static final int SHARED_OPERATIONS_PER_THREAD = 200_000;
+    private static final int STRESS_SHARED_OPERATIONS_PER_THREAD = 2_000_000;
+    private static final int FILMS = 200;
+    private static final int USERS_PER_THREAD = 100;
+    private static final int SHARED_USERS = 16;
+    private static final int TIMEOUT_SECONDS = 120;
+
+    @Test
+    void filmStorageKeepsInvariantsUnderConcurrentLikes() throws Exception {
+        checkFilmStorage(OPERATIONS_PER_THREAD);
+    }
+
+    @Test
+    @Tag("stress")
+    void filmStorageKeepsInvariantsUnderMillionsOfConcurrentLikes() throws Exception {
+        checkFilmStorage(STRESS_OPERATIONS_PER_THREAD);
+    }
+
+    @Test
+    void userStorageKeepsInvariantsUnderConcurrentFriendships() throws Exception {
+        checkUserStorage(OPERATIONS_PER_THREAD);
+    }
+
+    @Test
+    @Tag("stress")
+    void userStorageKeepsInvariantsUnderMillionsOfConcurrentFriendships() throws Exception {
+        checkUserStorage(STRESS_OPERATIONS_PER_THREAD);
+    }
+
+    @Test
+    void userStorageKeepsRequestsSymmetricWhenThreadsShareUsers() throws Exception {
+        checkSharedUsers(SHARED_OPERATIONS_PER_THREAD);
+    }
+
+    @Test
+    @Tag("stress")
+    void userStorageKeepsRequestsSymmetricUnderMillionsOfSharedFriendships() throws Exception {
+        checkSharedUsers(STRESS_SHARED_OPERATIONS_PER_THREAD);
+    }
+
+    @Test
+    void oppositeFriendshipsDoNotDeadlock() throws Exception {
+        checkOppositeFriendships(SHARED_OPERATIONS_PER_THREAD);
+    }
+
+    @Test
+    @Tag("stress")
+    void millionsOfOppositeFriendshipsDoNotDeadlock() throws Exception {
+        checkOppositeFriendships(STRESS_SHARED_OPERATIONS_PER_THREAD);
+    }
+
+    private static void checkFilmStorage(int operationsPerThread) throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        for (int i = 0; i < FILMS; i++) {
+            storage.create(film(i));
+        }
+
+        List<Map<Long, Set<Long>>> expectedByThread = runConcurrently(thread -> {
+            SplittableRandom random = new SplittableRandom(thread);
+            Map<Long, Set<Long>> expected = new HashMap<>();
+            Set<Long> createdIds = new HashSet<>();
+            int lastSnapshotSize = 0;
+
+            for (int op = 0; op < operationsPerThread; op++) {
+                long filmId = 1 + random.nextInt(FILMS);
+                long userId = (long) thread * USERS_PER_THREAD + random.nextInt(USERS_PER_THREAD);
+                int kind = random.nextInt(100);
+                if (kind < 50) {
+                    storage.addLike(filmId, userId);
+                    expected.computeIfAbsent(filmId, id -> new HashSet<>()).add(userId);
+                } else if (kind < 95) {
+                    boolean removed = storage.removeLike(filmId, userId);
+                    boolean expectedRemoved = expected.computeIfAbsent(filmId, id -> new HashSet<>()).remove(userId);
+                    assertThat(removed).isEqualTo(expectedRemoved);
+                } else if (kind < 98) {
+                    Long id = storage.create(film(op)).getId();
+                    assertThat(createdIds.add(id)).isTrue();
+                } else if (kind < 99) {
+                    List<Film> snapshot = storage.findAll();
+                    assertThat(snapshot.size()).isGreaterThanOrEqualTo(lastSnapshotSize);
+                    lastSnapshotSize = snapshot.size();
+                } else {
+                    assertThat(storage.getPopularFilms(10))
+                            .hasSize(10)
+                            .extracting(Film::getId)
+                            .doesNotHaveDuplicates();
+                }
+            }
+            return expected;
+        });
+
+        Map<Long, Integer> likeCounts = storage.getLikeCounts();
+        for (long filmId = 1; filmId <= FILMS; filmId++) {
+            long id = filmId;
+            int expectedCount = expectedByThread.stream()
+                    .mapToInt(expected -> expected.getOrDefault(id, Set.of()).size())
+                    .sum();
+            assertThat(likeCounts.get(filmId)).as("лайки фильма %d", filmId).isEqualTo(expectedCount);
+        }
+        List<Long> ids = storage.findAll().stream().map(Film::getId).collect(Collectors.toList());
+        assertThat(new HashSet<>(ids)).hasSameSizeAs(ids);
+        assertThat(ids).hasSize(likeCounts.size());
+    }
+
+    private static void checkUserStorage(int operationsPerThread) throws Exception {
+        InMemoryUserStorage storage = new InMemoryUserStorage();
+        for (int i = 0; i < THREADS * USERS_PER_THREAD; i++) {
+            storage.create(user(i));
+        }
+
+        List<Map<Long, Set<Long>>> expectedByThread = runConcurrently(thread -> {
+            SplittableRandom random = new SplittableRandom(thread);
+            Map<Long, Set<Long>> expected = new HashMap<>();
+            long firstUserId = 1 + (long) thread * USERS_PER_THREAD;
+
+            for (int op = 0; op < operationsPerThread; op++) {
+                long userId = firstUserId + random.nextInt(USERS_PER_THREAD);
+                long friendId = firstUserId + random.nextInt(USERS_PER_THREAD);
+                if (userId == friendId) {
+                    continue;
+                }
+                int kind = random.nextInt(100);
+                // Заявка хранится у обоих участников, поэтому ожидание ведём по неупорядоченным парам
+                if (kind < 50) {
+                    storage.addFriend(userId, friendId);
+                    expected.computeIfAbsent(userId, id -> new HashSet<>()).add(friendId);
+                    expected.computeIfAbsent(friendId, id -> new HashSet<>()).add(userId);
+                } else if (kind < 95) {
+                    storage.removeFriend(userId, friendId);
+                    expected.getOrDefault(userId, new HashSet<>()).remove(friendId);
+                    expected.getOrDefault(friendId, new HashSet<>()).remove(userId);
+                } else if (kind < 99) {
+                    storage.getFriendRequests(userId);
+                } else {
+                    assertThat(storage.findAll()).hasSize(THREADS * USERS_PER_THREAD);
+                }
+            }
+            return expected;
+        });
+
+        long ids = storage.findAll().stream().map(User::getId).distinct().count();
+        assertThat(ids).isEqualTo(THREADS * USERS_PER_THREAD);
+        for (Map<Long, Set<Long>> expected : expectedByThread) {
+            expected.forEach((userId, requestIds) -> assertThat(storage.getFriendRequests(userId))
+                    .as("заявки пользователя %d", userId)
+                    .extracting(User::getId)
+                    .containsExactlyInAnyOrderElementsOf(requestIds));
+        }
+    }
+
+    // Пользователи общие для всех потоков, а пара {a, b} принадлежит потоку (a + b) % THREADS:
+    // разные потоки одновременно меняют друзей одного пользователя, но итог каждой пары предсказуем
+    private static void checkSharedUsers(int operationsPerThread) throws Exception {
+        InMemoryUserStorage storage = sharedUserStorage();
+
+        List<SharedExpectation> expectedByThread = runConcurrently(thread -> {
+            SplittableRandom random = new SplittableRandom(thread);
+            SharedExpectation expected = new SharedExpectation();
+            for (int op = 0; op < operationsPerThread; op++) {
+                int first = random.nextInt(SHARED_USERS);
+                int second = Math.floorMod(thread - first, THREADS) + THREADS * random.nextInt(SHARED_USERS / THREADS);
+                if (first == second) {
+                    continue;
+                }
+                // Пара дружится в обоих направлениях, id пользователей — индексы + 1
+                boolean forward = random.nextBoolean();
+                long userId = 1L + (forward ? first : second);
+                long friendId = 1L + (forward ? second : first);
+                if (random.nextBoolean()) {
+                    storage.addFriend(userId, friendId);
+                    expected.friends.computeIfAbsent(userId, id -> new HashSet<>()).add(friendId);
+                    expected.requests.computeIfAbsent(userId, id -> new HashSet<>()).add(friendId);
+                    expected.requests.computeIfAbsent(friendId, id -> new HashSet<>()).add(userId);
+                } else {
+                    storage.removeFriend(userId, friendId);
+                    expected.friends.getOrDefault(userId, new HashSet<>()).remove(friendId);
+                    expected.requests.getOrDefault(userId, new HashSet<>()).remove(friendId);
+                    expected.requests.getOrDefault(friendId, new HashSet<>()).remove(userId);
+                }
+            }
+            return expected;
+        });
+
+        Map<Long, Set<Long>> expectedFriends = new HashMap<>();
+        Map<Long, Set<Long>> expectedRequests = new HashMap<>();
+        for (SharedExpectation expected : expectedByThread) {
+            expected.friends.forEach((userId, friendIds) ->
+                    expectedFriends.computeIfAbsent(userId, id -> new HashSet<>()).addAll(friendIds));
+            expected.requests.forEach((userId, requestIds) ->
+                    expectedRequests.computeIfAbsent(userId, id -> new HashSet<>()).addAll(requestIds));
+        }
+        Map<Long, Set<Long>> friends = new HashMap<>();
+        storage.streamFriendships((userId, friendId) ->
+                friends.computeIfAbsent(userId, id -> new HashSet<>()).add(friendId));
+        for (long userId = 1; userId <= SHARED_USERS; userId++) {
+            assertThat(friends.getOrDefault(userId, Set.of()))
+                    .as("друзья пользователя %d", userId)
+                    .containsExactlyInAnyOrderElementsOf(expectedFriends.getOrDefault(userId, Set.of()));
+            assertThat(storage.getFriendRequests(userId))
+                    .as("заявки пользователя %d", userId)
+                    .extracting(User::getId)
+                    .containsExactlyInAnyOrderElementsOf(expectedRequests.getOrDefault(userId, Set.of()));
+        }
+        assertRequestsSymmetric(storage);
+    }
+
+    // Потоки парами проходят одни и те же пары пользователей, но чётный поток дружит a с b, а нечётный — b с a
+    private static void checkOppositeFriendships(int operationsPerThread) throws Exception {
+        InMemoryUserStorage storage = sharedUserStorage();
+
+        runConcurrently(thread -> {
+            SplittableRandom random = new SplittableRandom(thread / 2);
+            boolean reversed = thread % 2 == 1;
+            for (int op = 0; op < operationsPerThread; op++) {
+                long first = 1 + random.nextInt(SHARED_USERS);
+                long second = 1 + random.nextInt(SHARED_USERS);
+                boolean add = random.nextBoolean();
+                if (first == second) {
+                    continue;
+                }
+                long userId = reversed ? second : first;
+                long friendId = reversed ? first : second;
+                if (add) {
+                    storage.addFriend(userId, friendId);
+                } else {
+                    storage.removeFriend(userId, friendId);
+                }
+            }
+            return null;
+        });
+
+        assertRequestsSymmetric(storage);
+    }
+
+    private static InMemoryUserStorage sharedUserStorage() {
+        InMemoryUserStorage storage = new InMemoryUserStorage();
+        for (int i = 0; i < SHARED_USERS; i++) {
+            storage.create(user(i));
+        }
+        return storage;
+    }
+
+    // addFriend и removeFriend меняют заявку сразу у обоих участников, поэтому она видна либо обоим, либо никому
+    private static void assertRequestsSymmetric(InMemoryUserStorage storage) {
+        for (long userId = 1; userId <= SHARED_USERS; userId++) {
+            for (User requester : storage.getFriendRequests(userId)) {
+                assertThat(storage.getFriendRequests(requester.getId()))
+                        .as("заявки пользователя %d", requester.getId())
+                        .extracting(User::getId)
+                        .contains(userId);
+            }
+        }
+    }
+
+    private static <T> List<T> runConcurrently(ThreadTask<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            // Потоки стартуют одновременно, иначе на коротком прогоне они почти не пересекаются
+            CyclicBarrier start = new CyclicBarrier(THREADS);
+            for (int thread = 0; thread < THREADS; thread++) {
+                int threadIndex = thread;
+                Callable<T> callable = () -> {
+                    start.await();
+                    return task.run(threadIndex);
+                };
+                futures.add(executor.submit(callable));
+            }
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                // Взаимная блокировка потоков проявится здесь таймаутом, а не зависшей сборкой
+                results.add(future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Film film(int index) {
+        Film film = new Film();
+        film.setName("Film " + index);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+
+    private static User user(int index) {
+        User user = new User();
+        user.setEmail("user" + index + "@mail.ru");
+        user.setLogin("user" + index);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    // Ожидаемые друзья и заявки по парам одного потока
+    private static class SharedExpectation {
+        private final Map<Long, Set<Long>> friends = new HashMap<>();
+        private final Map<Long, Set<Long>> requests = new HashMap<>();
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask<T> {
+        T run(int thread);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingFilmStorageTest {
+
+    @Mock
+    private FilmStorage delegate;
+
+    private CachingFilmStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new CachingFilmStorage(delegate, Caffeine.newBuilder().maximumSize(100).build());
+    }
+
+    @Test
+    void repeatedReadsAreServedFromCache() {
+        when(delegate.findById(1L)).thenReturn(Optional.of(film(1L)));
+
+        assertThat(storage.findById(1L)).isPresent();
+        assertThat(storage.findById(1L)).isPresent();
+
+        verify(delegate, times(1)).findById(1L);
+    }
+
+    @Test
+    void missingFilmIsNotCached() {
+        when(delegate.findById(2L)).thenReturn(Optional.empty());
+
+        assertThat(storage.findById(2L)).isEmpty();
+        assertThat(storage.findById(2L)).isEmpty();
+
+        verify(delegate, times(2)).findById(2L);
+    }
+
+    @Test
+    void likesInvalidateCachedFilm() {
+        when(delegate.findById(1L)).thenReturn(Optional.of(film(1L)));
+
+        storage.findById(1L);
+        storage.addLike(1L, 10L);
+        storage.findById(1L);
+        storage.removeLike(1L, 10L);
+        storage.findById(1L);
+
+        verify(delegate, times(3)).findById(1L);
+    }
+
+    @Test
+    void findAllByIdLoadsOnlyMissingFilmsAndKeepsOrder() {
+        when(delegate.findById(2L)).thenReturn(Optional.of(film(2L)));
+        when(delegate.findAllById(anyCollection())).thenReturn(List.of(film(3L), film(1L)));
+
+        storage.findById(2L);
+        List<Film> films = storage.findAllById(List.of(3L, 2L, 1L));
+
+        assertThat(films).extracting(Film::getId).containsExactly(3L, 2L, 1L);
+        verify(delegate).findAllById(anyCollection());
+    }
+
+    @Test
+    void findAllByIdDoesNotCacheBulkLoadedFilms() {
+        when(delegate.findAllById(List.of(1L))).thenReturn(List.of(film(1L)));
+        when(delegate.findById(1L)).thenReturn(Optional.of(film(1L)));
+
+        storage.findAllById(List.of(1L));
+        storage.findById(1L);
+
+        verify(delegate).findById(1L);
+    }
+
+    private static Film film(Long id) {
+        Film film = new Film();
+        film.setId(id);
+        film.setName("Film " + id);
+        return film;
+    }
+}
@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingUserStorageTest {
+
+    @Mock
+    private UserStorage delegate;
+
+    private CachingUserStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new CachingUserStorage(delegate, Caffeine.newBuilder().maximumSize(100).build(), () -> {
+        });
+    }
+
+    @Test
+    void findAllByIdLoadsOnlyMissingUsersAndKeepsOrder() {
+        when(delegate.findById(2L)).thenReturn(Optional.of(user(2L)));
+        when(delegate.findAllById(List.of(3L, 1L))).thenReturn(List.of(user(1L), user(3L)));
+
+        storage.findById(2L);
+        List<User> users = storage.findAllById(List.of(3L, 2L, 1L));
+
+        assertThat(users).extracting(User::getId).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void findAllByIdDoesNotCacheBulkLoadedUsers() {
+        when(delegate.findAllById(List.of(1L))).thenReturn(List.of(user(1L)));
+        when(delegate.findById(1L)).thenReturn(Optional.of(user(1L)));
+
+        storage.findAllById(List.of(1L));
+        storage.findById(1L);
+
+        verify(delegate).findById(1L);
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setLogin("user" + id);
+        return user;
+    }
+}
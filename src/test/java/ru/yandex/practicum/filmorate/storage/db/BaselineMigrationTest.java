@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.storage.db;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Миграции поверх базы, созданной schema.sql/data.sql до перехода на Flyway (копия — в db/baseline),
+ * с теми же настройками baseline, что в application.properties.
+ */
+class BaselineMigrationTest {
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("db/baseline/schema.sql")
+                .addScript("db/baseline/data.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+
+        jdbcTemplate.update("INSERT INTO users (id, email, login, name, birthday) VALUES " +
+                "(1, 'one@mail.ru', 'one', 'One', '1990-01-01'), (2, 'two@mail.ru', 'two', 'Two', '1990-01-01')");
+        jdbcTemplate.update("INSERT INTO films (id, name, description, release_date, duration, mpa_rating) VALUES " +
+                "(1, 'Liked twice', 'd', '2000-01-01', 100, 'G'), (2, 'Liked once', 'd', '2000-01-01', 100, 'PG'), " +
+                "(3, 'Not liked', 'd', '2000-01-01', 100, 'R')");
+        jdbcTemplate.update("INSERT INTO likes (film_id, user_id) VALUES (1, 1), (1, 2), (2, 1)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void upgradesBaselineDatabaseAndBackfillsLikeCount() {
+        Flyway.configure()
+                .dataSource(database)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+
+        assertThat(jdbcTemplate.queryForList("SELECT like_count FROM films ORDER BY id", Integer.class))
+                .containsExactly(2, 1, 0);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM genres", Integer.class)).isEqualTo(6);
+
+        List<Film> popular = new FilmDbStorage(jdbcTemplate).getPopularFilms(10);
+        assertThat(popular).extracting(Film::getId).containsExactly(1L, 2L, 3L);
+    }
+}
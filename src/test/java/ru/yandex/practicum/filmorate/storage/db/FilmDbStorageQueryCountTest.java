@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.storage.db;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.dto.GenreDto;
+import ru.yandex.practicum.filmorate.dto.MpaDto;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет, что чтение фильмов выполняет фиксированное число SQL-запросов
+ * независимо от количества фильмов, жанров и лайков (нет N+1).
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+class FilmDbStorageQueryCountTest {
+    private static final int FILMS_COUNT = 30;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private CountingJdbcTemplate jdbcTemplate;
+    private FilmDbStorage filmStorage;
+    private List<Long> filmIds;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new CountingJdbcTemplate(dataSource);
+        filmStorage = new FilmDbStorage(jdbcTemplate);
+        UserDbStorage userStorage = new UserDbStorage(jdbcTemplate);
+
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@mail.ru");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            userIds.add(userStorage.create(user).getId());
+        }
+
+        filmIds = new ArrayList<>();
+        for (int i = 0; i < FILMS_COUNT; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, 1));
+            film.setDuration(100);
+            film.setMpa(new MpaDto(1L, null, null));
+            film.setGenres(List.of(new GenreDto(1L, null), new GenreDto(2L, null)));
+            Long filmId = filmStorage.create(film).getId();
+            filmIds.add(filmId);
+            for (Long userId : userIds) {
+                filmStorage.addLike(filmId, userId);
+            }
+        }
+        jdbcTemplate.reset();
+    }
+
+    @Test
+    void findAllRunsConstantNumberOfStatements() {
+        List<Film> films = filmStorage.findAll();
+
+        assertThat(films).hasSize(FILMS_COUNT);
+        assertThat(films).allSatisfy(film -> {
+            assertThat(film.getGenres()).hasSize(2);
+            assertThat(film.getLikes()).hasSize(3);
+            assertThat(film.getMpa()).isNotNull();
+        });
+        // films + film_genres + likes
+        assertThat(jdbcTemplate.getStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void findByIdRunsConstantNumberOfStatements() {
+        Film film = filmStorage.findById(filmIds.get(0)).orElseThrow();
+
+        assertThat(film.getGenres()).extracting(GenreDto::getId).containsExactly(1L, 2L);
+        assertThat(film.getLikes()).hasSize(3);
+        assertThat(jdbcTemplate.getStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void getPopularFilmsRunsConstantNumberOfStatements() {
+        List<Film> films = filmStorage.getPopularFilms(FILMS_COUNT);
+
+        assertThat(films).hasSize(FILMS_COUNT);
+        assertThat(jdbcTemplate.getStatementCount()).isEqualTo(3);
+    }
+
+    /**
+     * JdbcTemplate, считающий все выполненные им statement'ы и запоминающий отправленные батчи.
+     */
+    static class CountingJdbcTemplate extends JdbcTemplate {
+        private final AtomicInteger statementCount = new AtomicInteger();
+        private final List<Batch> batches = new ArrayList<>();
+
+        CountingJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        protected void applyStatementSettings(Statement stmt) throws SQLException {
+            statementCount.incrementAndGet();
+            super.applyStatementSettings(stmt);
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            batches.add(new Batch(sql, List.copyOf(batchArgs)));
+            return super.batchUpdate(sql, batchArgs);
+        }
+
+        int getStatementCount() {
+            return statementCount.get();
+        }
+
+        List<Batch> getBatches() {
+            return batches;
+        }
+
+        void reset() {
+            statementCount.set(0);
+            batches.clear();
+        }
+    }
+
+    record Batch(String sql, List<Object[]> args) {
+    }
+}
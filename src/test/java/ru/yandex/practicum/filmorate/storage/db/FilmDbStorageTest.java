@@ -6,11 +6,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.dto.GenreDto;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.db.FilmDbStorageQueryCountTest.CountingJdbcTemplate;
 
+import javax.sql.DataSource;
+import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -20,6 +28,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class FilmDbStorageTest {
     private final FilmDbStorage filmStorage;
+    private final DataSource dataSource;
 
     @Test
     void testFindFilmById() {
@@ -100,4 +109,154 @@ public class FilmDbStorageTest {
         assertThat(updatedFilm.getName()).isEqualTo("Updated Name");
         assertThat(updatedFilm.getDuration()).isEqualTo(180);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testUpdateFilmReplacesOnlyChangedGenres() {
+        CountingJdbcTemplate jdbcTemplate = new CountingJdbcTemplate(dataSource);
+        FilmDbStorage countingStorage = new FilmDbStorage(jdbcTemplate);
+
+        Film testFilm = new Film();
+        testFilm.setName("Test Film");
+        testFilm.setDescription("Test Description");
+        testFilm.setReleaseDate(LocalDate.of(2025, 1, 1));
+        testFilm.setDuration(120);
+        testFilm.setGenres(List.of(new GenreDto(1L, null), new GenreDto(2L, null)));
+
+        Film savedFilm = countingStorage.create(testFilm);
+        jdbcTemplate.reset();
+
+        savedFilm.setGenres(List.of(new GenreDto(3L, null), new GenreDto(2L, null), new GenreDto(4L, null),
+                new GenreDto(3L, null)));
+        countingStorage.update(savedFilm);
+
+        // Жанр 2 не менялся: его строку не удаляют и не вставляют заново
+        assertThat(jdbcTemplate.getBatches()).hasSize(2);
+        assertThat(jdbcTemplate.getBatches()).allSatisfy(batch -> assertThat(batch.args())
+                .noneMatch(args -> args[1].equals(2L)));
+        assertThat(jdbcTemplate.getBatches().get(0).sql()).startsWith("DELETE FROM film_genres");
+        assertThat(jdbcTemplate.getBatches().get(0).args()).extracting(args -> args[1]).containsExactly(1L);
+        // Добавленные жанры уходят одним батчем
+        assertThat(jdbcTemplate.getBatches().get(1).sql()).startsWith("INSERT INTO film_genres");
+        assertThat(jdbcTemplate.getBatches().get(1).args()).extracting(args -> args[1]).containsExactly(3L, 4L);
+
+        Film reloaded = countingStorage.findById(savedFilm.getId()).orElseThrow();
+        assertThat(reloaded.getGenres()).extracting(GenreDto::getId).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void testUpdateFilmWithSameGenresWritesNoGenreRows() {
+        CountingJdbcTemplate jdbcTemplate = new CountingJdbcTemplate(dataSource);
+        FilmDbStorage countingStorage = new FilmDbStorage(jdbcTemplate);
+
+        Film savedFilm = countingStorage.create(film("Film", LocalDate.of(2025, 1, 1), 1L));
+        jdbcTemplate.reset();
+
+        countingStorage.update(savedFilm);
+
+        assertThat(jdbcTemplate.getBatches()).isEmpty();
+    }
+
+    @Test
+    void testGetPopularFilmsFiltersByGenreAndYear() {
+        Film comedy2019 = filmStorage.create(film("Comedy 2019", LocalDate.of(2019, 3, 1), 2L));
+        Film drama2019 = filmStorage.create(film("Drama 2019", LocalDate.of(2019, 12, 31), 1L));
+        Film comedy2020 = filmStorage.create(film("Comedy 2020", LocalDate.of(2020, 1, 1), 2L));
+
+        assertThat(filmStorage.getPopularFilms(10, 2L, 2019)).extracting(Film::getId)
+                .containsExactly(comedy2019.getId());
+        assertThat(filmStorage.getPopularFilms(10, null, 2019)).extracting(Film::getId)
+                .containsExactly(comedy2019.getId(), drama2019.getId());
+        assertThat(filmStorage.getPopularFilms(10, 2L, null)).extracting(Film::getId)
+                .containsExactly(comedy2019.getId(), comedy2020.getId());
+        assertThat(filmStorage.getPopularFilms(10, 3L, null)).isEmpty();
+    }
+
+    @Test
+    void testFindPageWalksFilmsInIdOrder() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(filmStorage.create(film("Page " + i, LocalDate.of(2000, 1, 1), (long) i + 1)).getId());
+        }
+        long beforeFirst = ids.get(0) - 1;
+
+        List<Film> firstPage = filmStorage.findPage(beforeFirst, 2);
+        assertThat(firstPage).extracting(Film::getId).containsExactly(ids.get(0), ids.get(1));
+        assertThat(firstPage.get(0).getGenres()).extracting(GenreDto::getId).containsExactly(1L);
+
+        // Следующая страница начинается строго после последнего id предыдущей
+        List<Film> secondPage = filmStorage.findPage(firstPage.get(1).getId(), 2);
+        assertThat(secondPage).extracting(Film::getId).containsExactly(ids.get(2), ids.get(3));
+
+        List<Film> lastPage = filmStorage.findPage(secondPage.get(1).getId(), 2);
+        assertThat(lastPage).extracting(Film::getId).containsExactly(ids.get(4));
+
+        assertThat(filmStorage.findPage(ids.get(4), 2)).isEmpty();
+        assertThat(filmStorage.findPage(beforeFirst, 10)).extracting(Film::getId).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void testStreamAllHydratesEveryFilmAcrossBatches() {
+        // Больше двух пачек потокового чтения (по 500) и больше одной порции догрузки (1000)
+        int count = 1201;
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<Long> ids = insertFilms(jdbcTemplate, count);
+        jdbcTemplate.update("INSERT INTO users (email, login, birthday) VALUES ('stream@mail.ru', 'stream', ?)",
+                Date.valueOf(LocalDate.of(1990, 1, 1)));
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE login = 'stream'", Long.class);
+        List<Object[]> likes = new ArrayList<>();
+        for (int i = 0; i < count; i += 3) {
+            likes.add(new Object[]{ids.get(i), userId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO likes (film_id, user_id) VALUES (?, ?)", likes);
+
+        List<Film> streamed = new ArrayList<>();
+        filmStorage.streamAll(streamed::add);
+
+        assertThat(streamed).extracting(Film::getId).containsExactlyElementsOf(ids);
+        assertHydrated(streamed, userId);
+
+        List<Film> all = new ArrayList<>(filmStorage.findAll());
+        all.sort(Comparator.comparing(Film::getId));
+        assertHydrated(all, userId);
+    }
+
+    // Жанр и лайки расставлены insertFilms и тестом по позиции фильма
+    private static void assertHydrated(List<Film> films, Long userId) {
+        assertThat(films).hasSize(1201);
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            assertThat(film.getGenres()).as("жанры фильма %d", film.getId())
+                    .extracting(GenreDto::getId)
+                    .containsExactly((long) i % 6 + 1);
+            assertThat(film.getLikes()).as("лайки фильма %d", film.getId())
+                    .isEqualTo(i % 3 == 0 ? Set.of(userId) : Set.of());
+        }
+    }
+
+    private static List<Long> insertFilms(JdbcTemplate jdbcTemplate, int count) {
+        List<Object[]> films = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            films.add(new Object[]{"Stream " + i, Date.valueOf(LocalDate.of(2000, 1, 1)), 100, "G"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO films (name, release_date, duration, mpa_rating) VALUES (?, ?, ?, ?)",
+                films);
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM films ORDER BY id", Long.class);
+
+        List<Object[]> genres = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            genres.add(new Object[]{ids.get(i), (long) i % 6 + 1});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", genres);
+        return ids;
+    }
+
+    private static Film film(String name, LocalDate releaseDate, Long genreId) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(releaseDate);
+        film.setDuration(100);
+        film.setGenres(List.of(new GenreDto(genreId, null)));
+        return film;
+    }
+}
@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.storage.db;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.index.PopularityLeaderboard;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.StorageBulkChangeEvent;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class LikeCountReconciliationJobTest {
+    private final JdbcTemplate jdbcTemplate;
+
+    private final List<Object> events = new ArrayList<>();
+    private PopularityLeaderboard leaderboard;
+    private LikeCountReconciliationJob job;
+    private Long firstFilmId;
+    private Long secondFilmId;
+
+    @BeforeEach
+    void setUp() {
+        FilmDbStorage filmStorage = new FilmDbStorage(jdbcTemplate);
+        leaderboard = new PopularityLeaderboard(filmStorage, true, new SimpleMeterRegistry());
+        job = new LikeCountReconciliationJob(filmStorage, event -> {
+            events.add(event);
+            leaderboard.onBulkChange((StorageBulkChangeEvent) event);
+        });
+
+        User user = new User();
+        user.setEmail("reconcile@mail.ru");
+        user.setLogin("reconcile");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        Long userId = new UserDbStorage(jdbcTemplate).create(user).getId();
+
+        firstFilmId = filmStorage.create(film("First")).getId();
+        secondFilmId = filmStorage.create(film("Second")).getId();
+        filmStorage.addLike(secondFilmId, userId);
+    }
+
+    @Test
+    void reconcileRebuildsLeaderboardAfterFixingDriftedCounts() {
+        // Счётчик первого фильма разошёлся с таблицей likes, и рейтинг прогрелся уже по нему
+        jdbcTemplate.update("UPDATE films SET like_count = 5 WHERE id = ?", firstFilmId);
+        leaderboard.warmUp();
+        assertThat(leaderboard.topFilmIds(2)).containsExactly(firstFilmId, secondFilmId);
+
+        job.reconcile();
+
+        assertThat(events).containsExactly(new StorageBulkChangeEvent("likes"));
+        assertThat(leaderboard.topFilmIds(2)).containsExactly(secondFilmId, firstFilmId);
+        assertThat(leaderboard.likeCount(firstFilmId)).isZero();
+    }
+
+    @Test
+    void reconcileWithoutDriftPublishesNothing() {
+        job.reconcile();
+
+        assertThat(events).isEmpty();
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+}
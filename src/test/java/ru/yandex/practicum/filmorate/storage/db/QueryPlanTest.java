@@ -0,0 +1,190 @@
+package ru.yandex.practicum.filmorate.storage.db;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import ru.yandex.practicum.filmorate.dto.GenreDto;
+import ru.yandex.practicum.filmorate.dto.MpaDto;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Прогоняет операции FilmDbStorage и UserDbStorage, которые должны работать по индексам,
+ * и проверяет через EXPLAIN, что ни один из выполненных ими SELECT/UPDATE/DELETE не просматривает
+ * таблицу целиком. Методы, которые читают всю таблицу намеренно (findAll, streamAll, streamLikes,
+ * streamFriendships, getLikeCounts, сверка счётчиков), здесь не вызываются.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+class QueryPlanTest {
+    private static final String TABLE_SCAN = "tableScan";
+
+    @Autowired
+    private DataSource dataSource;
+
+    private RecordingJdbcTemplate jdbcTemplate;
+    private FilmDbStorage filmStorage;
+    private UserDbStorage userStorage;
+    private List<Long> userIds;
+    private List<Long> filmIds;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new RecordingJdbcTemplate(dataSource);
+        filmStorage = new FilmDbStorage(jdbcTemplate);
+        userStorage = new UserDbStorage(jdbcTemplate);
+
+        userIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@mail.ru");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            userIds.add(userStorage.create(user).getId());
+        }
+
+        filmIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description " + i);
+            film.setReleaseDate(LocalDate.of(2010 + i % 3, 1, 1));
+            film.setDuration(100);
+            film.setMpa(new MpaDto(1L, null, null));
+            film.setGenres(List.of(new GenreDto(1L + i % 3, null)));
+            filmIds.add(filmStorage.create(film).getId());
+        }
+        jdbcTemplate.reset();
+    }
+
+    @Test
+    void filmQueriesUseIndexes() {
+        Long filmId = filmIds.get(0);
+        filmStorage.findById(filmId);
+        filmStorage.existsById(filmId);
+        filmStorage.findAllById(filmIds);
+        filmStorage.findPage(filmId, 5);
+        filmStorage.addLike(filmId, userIds.get(0));
+        filmStorage.removeLike(filmId, userIds.get(0));
+        filmStorage.getPopularFilms(5);
+        filmStorage.getPopularFilms(5, 2L, null);
+        filmStorage.getPopularFilms(5, null, 2011);
+        filmStorage.getPopularFilms(5, 2L, 2011);
+
+        Film film = filmStorage.findById(filmIds.get(1)).orElseThrow();
+        film.setGenres(List.of(new GenreDto(3L, null)));
+        filmStorage.update(film);
+        filmStorage.delete(filmIds.get(2));
+
+        assertNoTableScans();
+    }
+
+    @Test
+    void userQueriesUseIndexes() {
+        Long userId = userIds.get(0);
+        userStorage.findById(userId);
+        userStorage.existsById(userId);
+        userStorage.findAllById(userIds);
+        userStorage.findPage(userId, 5);
+        userStorage.addFriend(userId, userIds.get(1));
+        userStorage.addFriend(userIds.get(2), userIds.get(1));
+        userStorage.getFriends(userId);
+        userStorage.getCommonFriends(userId, userIds.get(2));
+        userStorage.removeFriend(userId, userIds.get(1));
+
+        filmStorage.addLike(filmIds.get(0), userIds.get(3));
+        userStorage.delete(userIds.get(3));
+
+        assertNoTableScans();
+    }
+
+    private void assertNoTableScans() {
+        JdbcTemplate explainTemplate = new JdbcTemplate(dataSource);
+        assertThat(jdbcTemplate.getStatements()).isNotEmpty();
+        for (ExecutedStatement statement : jdbcTemplate.getStatements()) {
+            if (statement.sql().stripLeading().startsWith("INSERT")) {
+                continue;
+            }
+            String plan = explainTemplate.queryForObject("EXPLAIN " + statement.sql(), String.class,
+                    statement.args());
+            assertThat(plan)
+                    .as("План запроса %s", statement.sql())
+                    .doesNotContain(TABLE_SCAN);
+        }
+    }
+
+    record ExecutedStatement(String sql, Object[] args) {
+    }
+
+    /**
+     * JdbcTemplate, запоминающий SQL и параметры всех запросов и изменений, выполненных с параметрами.
+     */
+    static class RecordingJdbcTemplate extends JdbcTemplate {
+        private final List<ExecutedStatement> statements = new ArrayList<>();
+
+        RecordingJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        protected PreparedStatementSetter newArgPreparedStatementSetter(Object[] args) {
+            return new RecordingArgumentSetter(args);
+        }
+
+        @Override
+        public <T> T query(String sql, PreparedStatementSetter pss, ResultSetExtractor<T> rse)
+                throws DataAccessException {
+            record(sql, pss);
+            return super.query(sql, pss, rse);
+        }
+
+        @Override
+        public int update(String sql, PreparedStatementSetter pss) throws DataAccessException {
+            record(sql, pss);
+            return super.update(sql, pss);
+        }
+
+        List<ExecutedStatement> getStatements() {
+            return statements;
+        }
+
+        void reset() {
+            statements.clear();
+        }
+
+        private void record(String sql, PreparedStatementSetter pss) {
+            Object[] args;
+            if (pss instanceof RecordingArgumentSetter setter) {
+                args = setter.args;
+            } else if (pss instanceof FetchSizeArgumentSetter setter) {
+                args = setter.getArgs();
+            } else {
+                args = new Object[0];
+            }
+            statements.add(new ExecutedStatement(sql, args));
+        }
+    }
+
+    static class RecordingArgumentSetter extends ArgumentPreparedStatementSetter {
+        private final Object[] args;
+
+        RecordingArgumentSetter(Object[] args) {
+            super(args);
+            this.args = args == null ? new Object[0] : args;
+        }
+    }
+}
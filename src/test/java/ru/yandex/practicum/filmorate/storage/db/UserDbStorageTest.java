@@ -11,12 +11,13 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @JdbcTest
-@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @Import(UserDbStorage.class) // Явно импортируем только UserDbStorage
 class UserDbStorageTest {
@@ -45,6 +46,26 @@ class UserDbStorageTest {
         assertThat(createdUser.getEmail()).isEqualTo("test@mail.ru");
     }
 
+    @Test
+    void testCreateAndUpdateUserWithoutBirthday() {
+        User user = new User();
+        user.setEmail("nobirthday@mail.ru");
+        user.setLogin("nobirthday");
+        user.setName("No Birthday");
+
+        User createdUser = userStorage.create(user);
+        assertThat(userStorage.findById(createdUser.getId()))
+                .hasValueSatisfying(found -> assertThat(found.getBirthday()).isNull());
+
+        createdUser.setBirthday(LocalDate.of(1990, 1, 1));
+        userStorage.update(createdUser);
+        createdUser.setBirthday(null);
+        userStorage.update(createdUser);
+
+        assertThat(userStorage.findById(createdUser.getId()))
+                .hasValueSatisfying(found -> assertThat(found.getBirthday()).isNull());
+    }
+
     @Test
     void testFindAllUsers() {
         // Создаем двух пользователей
@@ -66,4 +87,94 @@ class UserDbStorageTest {
 
         assertThat(users).hasSize(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testExistsById() {
+        User user = new User();
+        user.setEmail("exists@mail.ru");
+        user.setLogin("exists");
+        user.setName("Exists");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        Long id = userStorage.create(user).getId();
+
+        assertThat(userStorage.existsById(id)).isTrue();
+        assertThat(userStorage.existsById(id + 1000)).isFalse();
+    }
+
+    @Test
+    void testFindAllByIdKeepsRequestedOrder() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            User user = new User();
+            user.setEmail("batch" + i + "@mail.ru");
+            user.setLogin("batch" + i);
+            user.setName("Batch " + i);
+            user.setBirthday(LocalDate.of(1990, 1, i));
+            ids.add(userStorage.create(user).getId());
+        }
+
+        List<User> users = userStorage.findAllById(List.of(ids.get(2), ids.get(0), ids.get(2) + 1000, ids.get(0)));
+
+        assertThat(users).extracting(User::getId).containsExactly(ids.get(2), ids.get(0));
+    }
+
+    @Test
+    void testFindPageUsesKeysetCursor() {
+        for (int i = 1; i <= 5; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@mail.ru");
+            user.setLogin("user" + i);
+            user.setName("User " + i);
+            user.setBirthday(LocalDate.of(1990, 1, i));
+            userStorage.create(user);
+        }
+        List<User> all = userStorage.findAll();
+
+        List<User> firstPage = userStorage.findPage(0, 2);
+        List<User> secondPage = userStorage.findPage(firstPage.get(1).getId(), 2);
+        List<User> lastPage = userStorage.findPage(secondPage.get(1).getId(), 2);
+
+        assertThat(firstPage).containsExactlyElementsOf(all.subList(0, 2));
+        assertThat(secondPage).containsExactlyElementsOf(all.subList(2, 4));
+        assertThat(lastPage).containsExactlyElementsOf(all.subList(4, 5));
+    }
+
+    @Test
+    void testStreamAllVisitsEveryUserInIdOrder() {
+        for (int i = 1; i <= 3; i++) {
+            User user = new User();
+            user.setEmail("stream" + i + "@mail.ru");
+            user.setLogin("stream" + i);
+            user.setBirthday(LocalDate.of(1990, 1, i));
+            userStorage.create(user);
+        }
+        List<User> streamed = new ArrayList<>();
+
+        userStorage.streamAll(streamed::add);
+
+        assertThat(streamed).containsExactlyElementsOf(userStorage.findAll());
+    }
+
+    @Test
+    void testDeleteReturnsLikedFilmsAndDecrementsTheirLikeCounts() {
+        User user = new User();
+        user.setEmail("delete@mail.ru");
+        user.setLogin("delete");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        Long userId = userStorage.create(user).getId();
+        List<Long> filmIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("INSERT INTO films (name, duration, like_count) VALUES (?, 100, 1)", "Delete " + i);
+            filmIds.add(jdbcTemplate.queryForObject("SELECT MAX(id) FROM films", Long.class));
+        }
+        jdbcTemplate.update("INSERT INTO likes (film_id, user_id) VALUES (?, ?), (?, ?)",
+                filmIds.get(0), userId, filmIds.get(2), userId);
+
+        long[] unliked = userStorage.delete(userId);
+
+        assertThat(unliked).containsExactlyInAnyOrder(filmIds.get(0), filmIds.get(2));
+        assertThat(jdbcTemplate.queryForList("SELECT like_count FROM films WHERE id IN (?, ?, ?) ORDER BY id",
+                Integer.class, filmIds.toArray())).containsExactly(0, 1, 0);
+        assertThat(userStorage.existsById(userId)).isFalse();
+    }
+}
@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongHashSetTest {
+    private static final int EDGES = 100_000;
+
+    @Test
+    void behavesLikeHashSetUnderRandomOperations() {
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet();
+        Set<Long> reference = new HashSet<>();
+
+        for (int i = 0; i < 500_000; i++) {
+            long value = random.nextInt(5_000) - 100;
+            if (random.nextInt(3) < 2) {
+                assertThat(set.add(value)).isEqualTo(reference.add(value));
+            } else {
+                assertThat(set.remove(value)).isEqualTo(reference.remove(value));
+            }
+            assertThat(set.contains(value)).isEqualTo(reference.contains(value));
+        }
+
+        assertThat(set).isEqualTo(reference);
+        assertThat(set.hashCode()).isEqualTo(reference.hashCode());
+        assertThat(set.toSortedArray()).isSorted().hasSize(reference.size());
+    }
+
+    @Test
+    void storesEdgeInFractionOfBoxedSetMemory() {
+        long boxedBytes = allocatedBytes(() -> {
+            Set<Long> set = new HashSet<>(EDGES * 4 / 3 + 1);
+            for (int i = 0; i < EDGES; i++) {
+                set.add(1_000L + i);
+            }
+            return set;
+        });
+        long primitiveBytes = allocatedBytes(() -> {
+            LongHashSet set = new LongHashSet(EDGES);
+            for (int i = 0; i < EDGES; i++) {
+                set.add(1_000L + i);
+            }
+            return set;
+        });
+
+        double boxedPerEdge = (double) boxedBytes / EDGES;
+        double primitivePerEdge = (double) primitiveBytes / EDGES;
+        // HashSet<Long>: упакованный Long + узел HashMap + ссылка в таблице; LongHashSet: long в таблице
+        assertThat(primitivePerEdge)
+                .as("байт на связь: LongHashSet %.1f, HashSet<Long> %.1f", primitivePerEdge, boxedPerEdge)
+                .isLessThan(boxedPerEdge / 2)
+                .isLessThan(32);
+    }
+
+    // Сколько байт выделил текущий поток при построении множества
+    private static long allocatedBytes(SetFactory factory) {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threadMXBean.getCurrentThreadAllocatedBytes();
+        Set<Long> set = factory.build();
+        long after = threadMXBean.getCurrentThreadAllocatedBytes();
+        assertThat(set).hasSize(EDGES);
+        return after - before;
+    }
+
+    @FunctionalInterface
+    private interface SetFactory {
+        Set<Long> build();
+    }
+}
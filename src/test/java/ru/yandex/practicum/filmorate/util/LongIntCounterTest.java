@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntCounterTest {
+
+    @Test
+    void countsLikeHashMapAndSelectsTopKeys() {
+        Random random = new Random(7);
+        LongIntCounter counter = new LongIntCounter();
+        Map<Long, Integer> reference = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(3_000) - 10;
+            assertThat(counter.increment(key)).isEqualTo(reference.merge(key, 1, Integer::sum));
+        }
+
+        assertThat(counter.size()).isEqualTo(reference.size());
+        long[] expectedTop = reference.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<Long, Integer>>comparingInt(Map.Entry::getValue).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(25)
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+        assertThat(counter.topKeys(25)).containsExactly(expectedTop);
+        assertThat(counter.get(0)).isEqualTo(reference.getOrDefault(0L, 0));
+
+        Map<Long, Integer> iterated = new HashMap<>();
+        counter.forEach(iterated::put);
+        assertThat(iterated).isEqualTo(reference);
+    }
+}